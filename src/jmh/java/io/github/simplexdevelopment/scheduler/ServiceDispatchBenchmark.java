@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import io.github.simplexdevelopment.api.SyncService;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a single firing of a service through {@link ServicePool#dispatch(io.github.simplexdevelopment.api.IService)},
+ * comparing the synchronous fast path of a {@link SyncService} with the subscription made for a reactive service.
+ * <p>
+ * Run it with {@code ./gradlew jmh}, which enables the GC profiler. The {@code gc.alloc.rate.norm} result is the number
+ * of bytes allocated per firing, and should be 0 for {@link #syncService()}.
+ *
+ * @author SimplexDevelopment
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceDispatchBenchmark {
+    /**
+     * The pool which dispatches the services. Its scheduler is never used, as each firing runs on the benchmark thread.
+     */
+    private ServicePool pool;
+    /**
+     * A service which uses the synchronous fast path.
+     */
+    private CountingSyncService sync;
+    /**
+     * An equivalent service which is executed by subscribing to {@link ExecutableService#start()}.
+     */
+    private CountingReactiveService reactive;
+
+    @Setup
+    public void setUp() {
+        pool = new ServicePool("benchmark", false);
+        sync = new CountingSyncService(pool);
+        reactive = new CountingReactiveService(pool);
+    }
+
+    /**
+     * @return The number of executions, so that the work cannot be eliminated.
+     */
+    @Benchmark
+    public long syncService() {
+        pool.dispatch(sync);
+        return sync.count;
+    }
+
+    /**
+     * @return The number of executions, so that the work cannot be eliminated.
+     */
+    @Benchmark
+    public long reactiveService() {
+        pool.dispatch(reactive);
+        return reactive.count;
+    }
+
+    /**
+     * A periodic service which counts its executions on the fast path.
+     */
+    private static final class CountingSyncService extends ExecutableService implements SyncService {
+        private long count = 0L;
+
+        private CountingSyncService(ServicePool pool) {
+            super(pool, "benchmark-sync", 0L, 1L, true, false);
+        }
+
+        @Override
+        public void execute() {
+            count++;
+        }
+
+        @Override
+        public Mono<Void> stop() {
+            return Mono.empty();
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+
+    /**
+     * A periodic service which counts its executions through a new Mono on each firing.
+     */
+    private static final class CountingReactiveService extends ExecutableService {
+        private long count = 0L;
+
+        private CountingReactiveService(ServicePool pool) {
+            super(pool, "benchmark-reactive", 0L, 1L, true, false);
+        }
+
+        @Override
+        public Mono<Void> start() {
+            return Mono.fromRunnable(() -> count++);
+        }
+
+        @Override
+        public Mono<Void> stop() {
+            return Mono.empty();
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+}
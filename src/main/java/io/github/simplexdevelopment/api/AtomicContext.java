@@ -0,0 +1,310 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * A lock-free, copy-on-write implementation of {@link Context}.
+ * <p>
+ * The element and the collection of this context are held together in a single immutable snapshot,
+ * which is swapped atomically on every update. Reads never lock and always observe a consistent snapshot,
+ * and writers retry their update against the latest snapshot instead of waiting on a lock.
+ * This makes the context safe to share between services executing on different {@link io.github.simplexdevelopment.scheduler.ServicePool}s.
+ * <p>
+ * Every successful update is published to {@link #changes()}, a hot {@link Flux} which services can subscribe to
+ * in order to react to changes instead of polling the context. Changes are emitted one at a time, in the order
+ * in which the updates were applied, by whichever writer finds the stream idle; the other writers never wait for it.
+ * Subscribers which cannot keep up will miss changes rather than slowing down the writers.
+ *
+ * @param <S> Any object type to wrap with this class.
+ * @author SimplexDevelopment
+ */
+public final class AtomicContext<S> implements Context<S> {
+    /**
+     * The current snapshot of this context.
+     */
+    private final AtomicReference<Snapshot<S>> snapshot;
+    /**
+     * The sink used to publish changes to subscribers.
+     */
+    private final Sinks.Many<Change<S>> changeSink;
+    /**
+     * The number of times {@link #drain()} has been requested while a writer was already emitting changes.
+     */
+    private final AtomicInteger wip = new AtomicInteger(0);
+    /**
+     * The last change which has been emitted. This is only accessed by the writer which is emitting changes.
+     */
+    private Node<S> emitted;
+
+    /**
+     * Creates a new empty context.
+     */
+    public AtomicContext() {
+        this(null, Collections.emptyList());
+    }
+
+    /**
+     * Creates a new context.
+     *
+     * @param initial    The initial element of this context.
+     * @param collection The initial collection of this context.
+     */
+    public AtomicContext(@Nullable S initial, @NotNull Collection<S> collection) {
+        Snapshot<S> first = new Snapshot<>(initial, List.copyOf(collection), null);
+        this.snapshot = new AtomicReference<>(first);
+        this.emitted = first.node();
+        this.changeSink = Sinks.many().multicast().directBestEffort();
+    }
+
+    @Override
+    public @NotNull Mono<S> getContext() {
+        return Mono.fromSupplier(() -> snapshot.get().element());
+    }
+
+    @Override
+    public @NotNull Mono<Void> setContext(S context) {
+        return Mono.fromRunnable(() -> {
+            Snapshot<S> previous;
+            do {
+                previous = snapshot.get();
+            } while (!commit(previous, previous.withElement(context)));
+        });
+    }
+
+    /**
+     * Atomically updates the element of this context.
+     * The function may be called more than once if other writers update the context at the same time,
+     * so it should be free of side effects.
+     *
+     * @param function The function which computes the new element from the current element.
+     * @return A Mono object which contains the new element.
+     */
+    public @NotNull Mono<S> updateContext(@NotNull UnaryOperator<S> function) {
+        return Mono.fromSupplier(() -> {
+            Snapshot<S> previous;
+            Snapshot<S> next;
+            do {
+                previous = snapshot.get();
+                next = previous.withElement(function.apply(previous.element()));
+            } while (!commit(previous, next));
+
+            return next.element();
+        });
+    }
+
+    /**
+     * Adds an element to the collection of this context.
+     *
+     * @param element The element to add.
+     * @return A Mono object which can be used to add the element in a non-blocking manner.
+     */
+    public @NotNull Mono<Void> add(@NotNull S element) {
+        return Mono.fromRunnable(() -> {
+            Snapshot<S> previous;
+            do {
+                previous = snapshot.get();
+            } while (!commit(previous, previous.withAdded(element)));
+        });
+    }
+
+    /**
+     * Removes an element from the collection of this context.
+     *
+     * @param element The element to remove.
+     * @return A Mono object which contains true if the element was removed, or false if it was not present.
+     */
+    public @NotNull Mono<Boolean> remove(@NotNull S element) {
+        return Mono.fromSupplier(() -> {
+            Snapshot<S> previous;
+            Snapshot<S> next;
+            do {
+                previous = snapshot.get();
+                next = previous.withRemoved(element);
+                if (next == previous) return false;
+            } while (!commit(previous, next));
+
+            return true;
+        });
+    }
+
+    /**
+     * @return An immutable snapshot of the collection of this context.
+     * Later updates to the context will not be reflected in the returned collection.
+     */
+    @Override
+    public @NotNull Collection<S> contextCollection() {
+        return snapshot.get().collection();
+    }
+
+    /**
+     * @return A Flux object which contains the values of the current snapshot of the collection.
+     * The Flux is created once per snapshot, rather than once per call.
+     */
+    @Override
+    public @NotNull Flux<S> fluxFromCollection() {
+        return snapshot.get().flux();
+    }
+
+    /**
+     * @return A hot Flux object which emits every change made to this context after subscription.
+     */
+    public @NotNull Flux<Change<S>> changes() {
+        return changeSink.asFlux();
+    }
+
+    /**
+     * Atomically replaces a snapshot, and publishes the change which produced the new snapshot.
+     *
+     * @param previous The snapshot the update was computed from.
+     * @param next     The updated snapshot.
+     * @return True if the snapshot was replaced, false if another writer updated the context first.
+     */
+    private boolean commit(Snapshot<S> previous, Snapshot<S> next) {
+        if (!snapshot.compareAndSet(previous, next)) return false;
+
+        // Only the writer which replaced the previous snapshot links its change, so the changes form a list in update order.
+        previous.node().next = next.node();
+        drain();
+        return true;
+    }
+
+    /**
+     * Emits every change which has been linked but not emitted yet, in update order.
+     * Only one writer emits at a time; a writer which finds another one emitting leaves its change to that writer.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) return;
+
+        int missed = 1;
+        do {
+            Node<S> next;
+            while ((next = emitted.next) != null) {
+                emitted = next;
+                if (changeSink.currentSubscriberCount() == 0) continue;
+                // The only possible failure is that no subscriber has demand, in which case they all miss the change.
+                changeSink.tryEmitNext(next.change);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * The type of change made to an {@link AtomicContext}.
+     */
+    public enum ChangeType {
+        /**
+         * The element of the context was replaced.
+         */
+        SET,
+        /**
+         * An element was added to the collection of the context.
+         */
+        ADDED,
+        /**
+         * An element was removed from the collection of the context.
+         */
+        REMOVED
+    }
+
+    /**
+     * A single change made to an {@link AtomicContext}.
+     *
+     * @param type     The type of change.
+     * @param previous The element before the change, or null if the change added an element.
+     * @param current  The element after the change, or null if the change removed an element.
+     * @param <S>      The type of element held by the context.
+     */
+    public record Change<S>(@NotNull ChangeType type, @Nullable S previous, @Nullable S current) {
+    }
+
+    /**
+     * A change in the list of changes of an {@link AtomicContext}, in the order in which they were applied.
+     *
+     * @param <S> The type of element held by the context.
+     */
+    private static final class Node<S> {
+        /**
+         * The change, or null for the initial state of the context.
+         */
+        private final Change<S> change;
+        /**
+         * The change which was applied after this one, or null if it has not been linked yet.
+         */
+        private volatile Node<S> next;
+
+        private Node(@Nullable Change<S> change) {
+            this.change = change;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the state of an {@link AtomicContext}.
+     *
+     * @param element    The element of the context.
+     * @param collection The collection of the context.
+     * @param flux       A Flux over the collection, created once for this snapshot.
+     * @param node       The change which produced this snapshot.
+     * @param <S>        The type of element held by the context.
+     */
+    private record Snapshot<S>(@Nullable S element, @NotNull List<S> collection, @NotNull Flux<S> flux, @NotNull Node<S> node) {
+        private Snapshot(@Nullable S element, @NotNull List<S> collection, @Nullable Change<S> change) {
+            this(element, collection, Flux.fromIterable(collection), new Node<>(change));
+        }
+
+        private Snapshot<S> withElement(@Nullable S element) {
+            return new Snapshot<>(element, collection, flux, new Node<>(new Change<>(ChangeType.SET, this.element, element)));
+        }
+
+        private Snapshot<S> withAdded(@NotNull S element) {
+            List<S> copy = new ArrayList<>(collection.size() + 1);
+            copy.addAll(collection);
+            copy.add(element);
+            return new Snapshot<>(this.element, Collections.unmodifiableList(copy), new Change<>(ChangeType.ADDED, null, element));
+        }
+
+        private Snapshot<S> withRemoved(@NotNull S element) {
+            int index = collection.indexOf(element);
+            if (index < 0) return this;
+
+            List<S> copy = new ArrayList<>(collection);
+            copy.remove(index);
+            return new Snapshot<>(this.element, Collections.unmodifiableList(copy), new Change<>(ChangeType.REMOVED, element, null));
+        }
+    }
+}
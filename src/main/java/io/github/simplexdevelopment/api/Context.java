@@ -30,13 +30,13 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * A glorified wrapper class which collects an element and abstracts it behind the Reactor API.
  *
  * @param <S> Any object type to wrap with this class.
  * @author SimplexDevelopment
+ * @see AtomicContext
  */
 public interface Context<S> {
     /**
@@ -59,6 +59,7 @@ public interface Context<S> {
      * @return A Flux object which contains the values of the {@link Context#contextCollection()}, for non-blocking interpretation.
      */
     default @Nullable Flux<S> fluxFromCollection() {
-        return contextCollection() == null ? null : Flux.fromIterable(Objects.requireNonNull(contextCollection()));
+        Collection<S> collection = contextCollection();
+        return collection == null ? null : Flux.fromIterable(collection);
     }
 }
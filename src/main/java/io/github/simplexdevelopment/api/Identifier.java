@@ -28,6 +28,10 @@ import java.util.UUID;
 
 /**
  * This interface provides a method for retrieving a name, unique identifier, and numerical id for a class.
+ * <p>
+ * The default implementations of {@link #getUniqueId()} and {@link #getNumericalId()} compute a digest of the name
+ * on every call. Classes with an immutable name should compute these once and override both methods,
+ * as {@link io.github.simplexdevelopment.scheduler.ServicePool} and {@link io.github.simplexdevelopment.scheduler.ExecutableService} do.
  *
  * @author SimplexDevelopment
  */
@@ -0,0 +1,345 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.api;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An index of {@link Identifier}s keyed by their {@link Identifier#getNumericalId()}.
+ * <p>
+ * Entries are stored in primitive open-addressing tables with linear probing, so lookups never box the key
+ * and never allocate. Two identifiers with different names may share a numerical id; both are kept,
+ * and {@link #get(Identifier)} tells them apart by name.
+ * <p>
+ * Lookups are lock-free. Writes are serialized; identifiers are inserted into and removed from the current table in place,
+ * and a new, compacted table is only published when the table has to grow, is filled up with removed slots,
+ * or has become mostly empty. Registering many entries at once with {@link #registerAll(Collection)} grows the table at most once.
+ *
+ * @param <V> The type of identifier stored in this registry.
+ * @author SimplexDevelopment
+ */
+public final class IdentifierRegistry<V extends Identifier> {
+    /**
+     * The smallest capacity a table may have. This must be a power of two.
+     */
+    private static final int MIN_CAPACITY = 16;
+    /**
+     * Marks the slot of a removed identifier, so that probing continues past it.
+     */
+    private static final Object TOMBSTONE = new Object();
+    /**
+     * The current table. Growing or compacting replaces it.
+     */
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    /**
+     * Registers an identifier. If an identifier with the same numerical id and name is already registered,
+     * it is replaced.
+     *
+     * @param value The identifier to register.
+     */
+    public synchronized void register(@NotNull V value) {
+        Table current = table;
+        if (current.fits(current.used + 1)) {
+            current.put(value);
+            return;
+        }
+
+        Table next = current.copy(current.size + 1);
+        next.put(value);
+        table = next;
+    }
+
+    /**
+     * Registers a collection of identifiers, publishing the new table once for the whole collection.
+     *
+     * @param values The identifiers to register.
+     */
+    public synchronized void registerAll(@NotNull Collection<? extends V> values) {
+        if (values.isEmpty()) return;
+
+        Table current = table;
+        if (current.fits(current.used + values.size())) {
+            values.forEach(current::put);
+            return;
+        }
+
+        Table next = current.copy(current.size + values.size());
+        values.forEach(next::put);
+        table = next;
+    }
+
+    /**
+     * Removes an identifier from this registry.
+     *
+     * @param value The identifier to remove.
+     * @return True if the identifier was registered, false otherwise.
+     */
+    public synchronized boolean unregister(@NotNull Identifier value) {
+        Table current = table;
+        int index = current.indexOf(value.getNumericalId(), value.getName());
+        if (index < 0) return false;
+
+        current.remove(index);
+        // Shrinking only once the table is at most an eighth full keeps the cost of removals amortized constant.
+        if (current.keys.length > MIN_CAPACITY && current.size * 8 <= current.keys.length) {
+            table = current.copy(current.size);
+        }
+        return true;
+    }
+
+    /**
+     * Removes every identifier from this registry.
+     */
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+    }
+
+    /**
+     * Finds the first identifier registered with the given numerical id.
+     * If more than one identifier shares the numerical id, use {@link #get(Identifier)} instead.
+     *
+     * @param numericalId The numerical id to look up.
+     * @return The registered identifier, or null if none is registered with the numerical id.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(int numericalId) {
+        return (V) table.find(numericalId, null);
+    }
+
+    /**
+     * Finds the registered identifier with the same numerical id and name as the given identifier.
+     *
+     * @param identifier The identifier to look up.
+     * @return The registered identifier, or null if none is registered.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(@NotNull Identifier identifier) {
+        return (V) table.find(identifier.getNumericalId(), identifier.getName());
+    }
+
+    /**
+     * @param identifier The identifier to look up.
+     * @return True if an identifier with the same numerical id and name is registered, false otherwise.
+     */
+    public boolean contains(@NotNull Identifier identifier) {
+        return table.find(identifier.getNumericalId(), identifier.getName()) != null;
+    }
+
+    /**
+     * @return The number of identifiers in this registry.
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * @return A list of every identifier in this registry, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull List<V> values() {
+        Table current = table;
+        List<V> list = new ArrayList<>(current.size);
+        for (int i = 0; i < current.values.length(); i++) {
+            Object entry = current.values.get(i);
+            if (entry != null && entry != TOMBSTONE) list.add((V) entry);
+        }
+        return list;
+    }
+
+    /**
+     * @param size The number of entries the table must hold.
+     * @return The smallest power of two capacity which keeps the table at most half full.
+     */
+    @Contract(pure = true)
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * @param entry       The registered identifier.
+     * @param numericalId The numerical id to match.
+     * @param name        The name to match, or null to match any name.
+     * @return True if the identifier matches.
+     */
+    private static boolean matches(Identifier entry, int numericalId, @Nullable String name) {
+        return entry.getNumericalId() == numericalId && (name == null || name.equals(entry.getName()));
+    }
+
+    /**
+     * @param numericalId The numerical id to spread.
+     * @return The numerical id with its high bits mixed into its low bits.
+     */
+    private static int spread(int numericalId) {
+        return numericalId ^ (numericalId >>> 16);
+    }
+
+    /**
+     * A single open-addressing table. The keys are stored in a separate primitive array
+     * so that probing only touches the identifiers which share the same numerical id.
+     * <p>
+     * Slots are never emptied: a removed identifier is replaced with {@link #TOMBSTONE}, which a later insertion may reuse.
+     * A probe therefore never stops early, and a lookup running during a write sees either the table before or after it.
+     * The key of a slot is written before its identifier is published, and a lookup reads the identifier before the key,
+     * so a published identifier always has its key.
+     */
+    private static final class Table {
+        /**
+         * The numerical ids of the stored identifiers.
+         */
+        private final int[] keys;
+        /**
+         * The stored identifiers. An empty slot is null, and the slot of a removed identifier is {@link #TOMBSTONE}.
+         */
+        private final AtomicReferenceArray<Object> values;
+        /**
+         * The number of stored identifiers.
+         */
+        private volatile int size;
+        /**
+         * The number of slots which are not empty, including removed slots. This is only accessed by writers.
+         */
+        private int used;
+
+        private Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+
+        /**
+         * @param used The number of slots which must be in use.
+         * @return Whether this table can use that many slots without being copied.
+         */
+        private boolean fits(int used) {
+            return capacityFor(used) <= keys.length;
+        }
+
+        /**
+         * @param minSize The number of entries the new table must be able to hold.
+         * @return A copy of this table without its removed slots, sized for the given number of entries.
+         */
+        private Table copy(int minSize) {
+            Table copy = new Table(capacityFor(minSize));
+            for (int i = 0; i < values.length(); i++) {
+                Object entry = values.get(i);
+                if (entry != null && entry != TOMBSTONE) copy.put((Identifier) entry);
+            }
+            return copy;
+        }
+
+        /**
+         * Finds a matching identifier. The identifier is returned rather than its slot,
+         * as the slot may be removed or replaced once it has been read.
+         *
+         * @param numericalId The numerical id to find.
+         * @param name        The name to find, or null to find any name.
+         * @return The matching identifier, or null if there is none.
+         */
+        private @Nullable Identifier find(int numericalId, @Nullable String name) {
+            int mask = keys.length - 1;
+            int index = spread(numericalId) & mask;
+            Object entry;
+            while ((entry = values.get(index)) != null) {
+                if (entry != TOMBSTONE && keys[index] == numericalId && matches((Identifier) entry, numericalId, name)) {
+                    return (Identifier) entry;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * This is only called by writers, which do not race with each other.
+         *
+         * @param numericalId The numerical id to find.
+         * @param name        The name to find, or null to find any name.
+         * @return The slot of the matching identifier, or -1 if there is none.
+         */
+        private int indexOf(int numericalId, @Nullable String name) {
+            int mask = keys.length - 1;
+            int index = spread(numericalId) & mask;
+            Object entry;
+            while ((entry = values.get(index)) != null) {
+                if (entry != TOMBSTONE && keys[index] == numericalId && matches((Identifier) entry, numericalId, name)) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Stores an identifier in this table, in the first removed slot of its probe if there is one.
+         * The table must have room for it.
+         *
+         * @param value The identifier to store.
+         */
+        private void put(Identifier value) {
+            int numericalId = value.getNumericalId();
+            int mask = keys.length - 1;
+            int index = spread(numericalId) & mask;
+            int removed = -1;
+            Object entry;
+            while ((entry = values.get(index)) != null) {
+                if (entry == TOMBSTONE) {
+                    if (removed < 0) removed = index;
+                } else if (keys[index] == numericalId && matches((Identifier) entry, numericalId, value.getName())) {
+                    values.set(index, value);
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            if (removed >= 0) {
+                index = removed;
+            } else {
+                used++;
+            }
+            keys[index] = numericalId;
+            values.set(index, value);
+            size++;
+        }
+
+        /**
+         * Removes the identifier in the given slot, leaving a {@link #TOMBSTONE} in its place.
+         *
+         * @param index The slot of the identifier.
+         */
+        private void remove(int index) {
+            values.set(index, TOMBSTONE);
+            size--;
+        }
+    }
+}
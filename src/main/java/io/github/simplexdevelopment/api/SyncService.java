@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.api;
+
+import io.github.simplexdevelopment.scheduler.ServicePool;
+import reactor.core.publisher.Mono;
+
+/**
+ * Represents a service whose work is entirely synchronous.
+ * <p>
+ * A {@link ServicePool} detects services of this type and calls {@link #execute()} directly on the thread
+ * of each firing, instead of subscribing to {@link #start()}. This avoids creating and subscribing
+ * to a new Mono for every firing, so a firing allocates nothing beyond what {@link #execute()} itself allocates.
+ * This is intended for large numbers of small services which run every tick.
+ * <p>
+ * Because there is no subscription, the reactive features of an execution (timeouts, retries,
+ * and the {@code CancellationToken}) do not apply to the fast path. Cancellation and circuit breakers
+ * are still honoured, and failures are still reported.
+ *
+ * @author SimplexDevelopment
+ */
+public interface SyncService extends IService {
+    /**
+     * Performs a single execution of this service on the current thread.
+     * Any exception thrown is reported as a failed execution.
+     */
+    void execute();
+
+    /**
+     * @return An encapsulated Mono object which calls {@link #execute()} when subscribed.
+     */
+    @Override
+    default Mono<Void> start() {
+        return Mono.fromRunnable(this::execute);
+    }
+
+    @Override
+    default void run() {
+        execute();
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A multithreaded {@link Scheduler} whose number of worker threads grows and shrinks with the load, within fixed bounds.
+ * <p>
+ * Every sampling interval, the scheduler measures how long tasks waited past their due time before a thread picked
+ * them up (the queue wait), and how much of the available thread time was spent executing tasks (the utilisation).
+ * If tasks are waiting longer than the target and the machine's CPU is not saturated, more threads are added, up to the maximum.
+ * Once the pool has been mostly idle for several consecutive samples, a thread is removed, down to the minimum,
+ * so that idle periods release threads and their memory. Adding threads is fast and removing them is slow,
+ * so bursty workloads are not starved while the pool settles.
+ * <p>
+ * Use {@link ServiceManager#adaptiveServicePool(String, int, int, io.github.simplexdevelopment.api.IService...)}
+ * to create a pool which runs on this scheduler.
+ *
+ * @author SimplexDevelopment
+ */
+public final class AdaptiveScheduler implements Scheduler, Scannable {
+    /**
+     * The thread which samples and resizes every adaptive scheduler. It is started with the first adaptive scheduler.
+     */
+    private static volatile ScheduledExecutorService controller;
+    /**
+     * How many consecutive idle samples are required before a thread is removed.
+     */
+    private static final int SHRINK_AFTER = 4;
+    /**
+     * The utilisation below which a sample counts as idle.
+     */
+    private static final double IDLE_UTILISATION = 0.5;
+    /**
+     * The system CPU load above which no more threads are added.
+     */
+    private static final double MAX_CPU_LOAD = 0.9;
+    /**
+     * The name of this scheduler.
+     */
+    private final String name;
+    /**
+     * The smallest number of threads this scheduler will keep.
+     */
+    private final int minThreads;
+    /**
+     * The largest number of threads this scheduler will use.
+     */
+    private final int maxThreads;
+    /**
+     * The queue wait above which more threads are added, in nanoseconds.
+     */
+    private final long targetWaitNanos;
+    /**
+     * The executor which runs the tasks.
+     */
+    private final MeasuredExecutor executor;
+    /**
+     * The Reactor scheduler backed by {@link #executor}.
+     */
+    private final Scheduler delegate;
+    /**
+     * The sampling task on the controller thread.
+     */
+    private final ScheduledFuture<?> sampling;
+    /**
+     * How many consecutive idle samples have been taken.
+     */
+    private int idleSamples = 0;
+    /**
+     * The time of the last sample, measured by {@link System#nanoTime()}.
+     */
+    private long lastSample;
+    /**
+     * The average queue wait of the last sample, in nanoseconds.
+     */
+    private volatile long lastWaitNanos = 0L;
+    /**
+     * The utilisation of the last sample, between 0 and 1.
+     */
+    private volatile double lastUtilisation = 0.0;
+
+    /**
+     * Creates a new adaptive scheduler, which samples the load every 250 milliseconds
+     * and adds threads once tasks wait longer than 5 milliseconds.
+     *
+     * @param name       The name of the scheduler, used for its threads.
+     * @param minThreads The smallest number of threads to keep.
+     * @param maxThreads The largest number of threads to use.
+     */
+    public AdaptiveScheduler(@NotNull String name, int minThreads, int maxThreads) {
+        this(name, minThreads, maxThreads, Duration.ofMillis(5), Duration.ofMillis(250));
+    }
+
+    /**
+     * Creates a new adaptive scheduler.
+     *
+     * @param name             The name of the scheduler, used for its threads.
+     * @param minThreads       The smallest number of threads to keep.
+     * @param maxThreads       The largest number of threads to use.
+     * @param targetWait       How long tasks may wait for a thread before more threads are added.
+     * @param samplingInterval How often the load is measured.
+     */
+    public AdaptiveScheduler(@NotNull String name,
+                             int minThreads,
+                             int maxThreads,
+                             @NotNull Duration targetWait,
+                             @NotNull Duration samplingInterval) {
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("The thread bounds must satisfy 1 <= minThreads <= maxThreads.");
+        }
+
+        this.name = name;
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.targetWaitNanos = targetWait.toNanos();
+        this.executor = new MeasuredExecutor(name, minThreads);
+        this.delegate = Schedulers.fromExecutorService(executor, name);
+        this.lastSample = System.nanoTime();
+        this.sampling = controller().scheduleAtFixedRate(this::sample,
+                samplingInterval.toNanos(),
+                samplingInterval.toNanos(),
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return The controller thread, starting it if necessary.
+     */
+    private static ScheduledExecutorService controller() {
+        ScheduledExecutorService current = controller;
+        if (current != null) return current;
+
+        synchronized (AdaptiveScheduler.class) {
+            if (controller == null) {
+                controller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "SimplexSS Adaptive Controller");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return controller;
+        }
+    }
+
+    /**
+     * Measures the load since the previous sample, and resizes the pool if necessary.
+     * This only ever runs on the controller thread.
+     */
+    private void sample() {
+        long now = System.nanoTime();
+        long elapsed = Math.max(1L, now - lastSample);
+        lastSample = now;
+
+        long tasks = executor.started.sumThenReset();
+        long wait = tasks == 0L ? 0L : executor.waitNanos.sumThenReset() / tasks;
+        double utilisation = executor.busyNanos.sumThenReset() / ((double) elapsed * executor.getCorePoolSize());
+        lastWaitNanos = wait;
+        lastUtilisation = Math.min(1.0, utilisation);
+
+        int size = executor.getCorePoolSize();
+        if (wait > targetWaitNanos && size < maxThreads && cpuLoad() < MAX_CPU_LOAD) {
+            idleSamples = 0;
+            executor.setCorePoolSize(Math.min(maxThreads, size + Math.max(1, size / 2)));
+        } else if (utilisation < IDLE_UTILISATION && wait <= targetWaitNanos / 4) {
+            if (++idleSamples >= SHRINK_AFTER && size > minThreads) {
+                idleSamples = 0;
+                executor.setCorePoolSize(size - 1);
+            }
+        } else {
+            idleSamples = 0;
+        }
+    }
+
+    /**
+     * @return The recent CPU load of the whole machine between 0 and 1, or 0 if it cannot be measured.
+     */
+    private static double cpuLoad() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean sun) {
+            double load = sun.getCpuLoad();
+            if (load >= 0.0) return load;
+        }
+        double average = bean.getSystemLoadAverage();
+        return average < 0.0 ? 0.0 : average / bean.getAvailableProcessors();
+    }
+
+    @Override
+    public @NotNull Disposable schedule(@NotNull Runnable task) {
+        return delegate.schedule(task);
+    }
+
+    @Override
+    public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        return delegate.schedule(task, delay, unit);
+    }
+
+    @Override
+    public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @NotNull TimeUnit unit) {
+        return delegate.schedulePeriodically(task, initialDelay, period, unit);
+    }
+
+    @Override
+    public @NotNull Worker createWorker() {
+        return delegate.createWorker();
+    }
+
+    /**
+     * @return The number of threads this scheduler currently aims to keep.
+     */
+    public int getTargetThreads() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * @return The number of threads which currently exist. Idle threads are released after a while,
+     * so this may be lower than {@link #getTargetThreads()}.
+     */
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * @return The smallest number of threads this scheduler will keep.
+     */
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    /**
+     * @return The largest number of threads this scheduler will use.
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * @return The average time tasks waited for a thread during the last sampling interval.
+     */
+    public @NotNull Duration getQueueWait() {
+        return Duration.ofNanos(lastWaitNanos);
+    }
+
+    /**
+     * @return How much of the available thread time was spent executing tasks during the last sampling interval, between 0 and 1.
+     */
+    public double getUtilisation() {
+        return lastUtilisation;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public @Nullable Object scanUnsafe(@NotNull Attr key) {
+        if (key == Attr.NAME) return name;
+        if (key == Attr.CAPACITY) return maxThreads;
+        if (key == Attr.BUFFERED) return executor.getQueue().size();
+        if (key == Attr.TERMINATED) return executor.isTerminated();
+        if (key == Attr.CANCELLED) return executor.isShutdown();
+        return null;
+    }
+
+    /**
+     * Stops sampling, and shuts down the threads of this scheduler.
+     */
+    @Override
+    public void dispose() {
+        sampling.cancel(false);
+        delegate.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate.isDisposed();
+    }
+
+    @Override
+    public String toString() {
+        return "adaptive(" + name + ")";
+    }
+
+    /**
+     * An executor which measures the queue wait and busy time of its tasks, without wrapping them.
+     */
+    private static final class MeasuredExecutor extends ScheduledThreadPoolExecutor {
+        /**
+         * When the task running on each thread started, measured by {@link System#nanoTime()}.
+         */
+        private static final ThreadLocal<long[]> STARTED_AT = ThreadLocal.withInitial(() -> new long[1]);
+        private final LongAdder started = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+
+        private MeasuredExecutor(String name, int threads) {
+            super(threads, new NamedThreadFactory(name));
+            setRemoveOnCancelPolicy(true);
+            setKeepAliveTime(30L, TimeUnit.SECONDS);
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable runnable) {
+            // The delay of a scheduled task is negative once it is overdue, so it measures how long the task waited.
+            if (runnable instanceof RunnableScheduledFuture<?> future) {
+                waitNanos.add(Math.max(0L, -future.getDelay(TimeUnit.NANOSECONDS)));
+            }
+            started.increment();
+            STARTED_AT.get()[0] = System.nanoTime();
+        }
+
+        @Override
+        protected void afterExecute(Runnable runnable, Throwable throwable) {
+            busyNanos.add(System.nanoTime() - STARTED_AT.get()[0]);
+        }
+    }
+
+    /**
+     * Creates daemon threads named after their scheduler.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        private NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A token representing a single execution of an {@link ExecutableService}.
+ * A new token is created every time the service is executed, and is placed in the Reactor context
+ * of the Mono returned by {@link ExecutableService#start()}, so it can be retrieved with {@link #current()}.
+ * <p>
+ * Long-running services should check {@link #isCancelled()} (or call {@link #throwIfCancelled()})
+ * between units of work, so that they stop promptly when the execution is cancelled or times out.
+ * Cancelling the token also cancels the subscription to the execution, and if the service allows it,
+ * interrupts the worker thread which is running the execution. The main server thread is never interrupted.
+ *
+ * @author SimplexDevelopment
+ */
+public final class CancellationToken {
+    /**
+     * Whether this execution has been cancelled.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * Whether the runner thread has been interrupted by this token.
+     */
+    private volatile boolean interrupted = false;
+    /**
+     * The subscription to the execution, once it has been subscribed to.
+     */
+    private volatile Subscription subscription;
+    /**
+     * The thread running the synchronous part of the execution, or null if it may not be interrupted.
+     */
+    private final AtomicReference<Thread> runner;
+    /**
+     * Whether the runner thread could be interrupted when this token was created.
+     */
+    private final boolean interruptible;
+
+    /**
+     * Creates a new token for an execution which is about to run on the current thread.
+     *
+     * @param interruptible Whether the current thread may be interrupted if the execution is cancelled.
+     */
+    CancellationToken(boolean interruptible) {
+        this.interruptible = interruptible && !Bukkit.isPrimaryThread();
+        this.runner = new AtomicReference<>(this.interruptible ? Thread.currentThread() : null);
+    }
+
+    /**
+     * @return A Mono object which contains the token of the execution it is subscribed within,
+     * or an empty Mono if it is not subscribed within the execution of an {@link ExecutableService}.
+     */
+    public static @NotNull Mono<CancellationToken> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(CancellationToken.class)));
+    }
+
+    /**
+     * @return True if this execution has been cancelled, false otherwise.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Throws a {@link CancellationException} if this execution has been cancelled.
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("The service execution has been cancelled.");
+        }
+    }
+
+    /**
+     * Cancels this execution. The subscription to the execution is cancelled,
+     * and the runner thread is interrupted if it is still running the execution.
+     *
+     * @return True if this call cancelled the execution, false if it was already cancelled.
+     */
+    boolean cancel() {
+        if (cancelled) return false;
+        cancelled = true;
+
+        Subscription current = subscription;
+        if (current != null) current.cancel();
+        interrupt();
+        return true;
+    }
+
+    /**
+     * Binds the subscription of the execution to this token.
+     * If the token has already been cancelled, the subscription is cancelled immediately.
+     *
+     * @param subscription The subscription to the execution.
+     */
+    void bind(Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) subscription.cancel();
+    }
+
+    /**
+     * Interrupts the runner thread, if it may be interrupted and is still running the execution.
+     */
+    void interrupt() {
+        cancelled = true;
+        Thread thread = runner.getAndSet(null);
+        if (thread != null) {
+            thread.interrupt();
+            interrupted = true;
+        }
+    }
+
+    /**
+     * Called by the runner thread once the synchronous part of the execution has returned.
+     * After this, the runner thread will no longer be interrupted by this token,
+     * and any interrupt delivered by this token is cleared so it cannot leak into the next task on the thread.
+     */
+    void release() {
+        if (!interruptible || runner.compareAndSet(Thread.currentThread(), null)) return;
+
+        while (!interrupted) {
+            Thread.onSpinWait();
+        }
+        Thread.interrupted();
+    }
+}
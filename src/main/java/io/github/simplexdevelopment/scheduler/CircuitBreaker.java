@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A circuit breaker which stops a repeatedly failing service from executing for a cool-down period.
+ * A circuit breaker can be attached to a service using {@link ExecutableService#setCircuitBreaker(CircuitBreaker)}.
+ * <p>
+ * While the breaker is {@link State#CLOSED}, every execution is allowed. Once the service has failed
+ * the configured number of times in a row, the breaker {@link State#OPEN opens} and every execution is skipped
+ * until the cool-down has elapsed. The next execution after the cool-down is a trial ({@link State#HALF_OPEN});
+ * if it succeeds the breaker closes again, and if it fails the breaker opens for another cool-down.
+ * <p>
+ * Checking the breaker is a single volatile read while it is closed, so it adds no measurable cost to healthy services.
+ *
+ * @author SimplexDevelopment
+ */
+public final class CircuitBreaker {
+    /**
+     * How many consecutive failures open the breaker.
+     */
+    private final int failureThreshold;
+    /**
+     * How long (in nanoseconds) the breaker stays open before a trial execution is allowed.
+     */
+    private final long coolDown;
+    /**
+     * The current state of the breaker.
+     */
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    /**
+     * The number of consecutive failures since the last success.
+     */
+    private final AtomicInteger failures = new AtomicInteger(0);
+    /**
+     * When the breaker last opened, measured by {@link System#nanoTime()}.
+     */
+    private volatile long openedAt;
+    /**
+     * The number of times the breaker has opened.
+     */
+    private final LongAdder trips = new LongAdder();
+    /**
+     * The number of executions which were skipped because the breaker was open.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a new circuit breaker.
+     *
+     * @param failureThreshold How many consecutive failures open the breaker.
+     * @param coolDown         How long the breaker stays open before a trial execution is allowed.
+     */
+    public CircuitBreaker(int failureThreshold, @NotNull Duration coolDown) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.coolDown = coolDown.toNanos();
+    }
+
+    /**
+     * Checks whether an execution may run. The caller learns whether it was granted the trial from the returned permit,
+     * rather than from {@link #getState()}, which another execution may have changed in the meantime.
+     *
+     * @return The permit of the execution.
+     */
+    @NotNull Permit tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) return Permit.GRANTED;
+
+        if (current == State.OPEN
+                && System.nanoTime() - openedAt >= coolDown
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return Permit.TRIAL;
+        }
+
+        rejected.increment();
+        return Permit.DENIED;
+    }
+
+    /**
+     * Records a successful execution. A successful trial closes the breaker; any other success only clears the
+     * failure count while the breaker is closed, as it was allowed before the breaker last opened.
+     *
+     * @param trial Whether the execution was granted {@link Permit#TRIAL}.
+     */
+    void recordSuccess(boolean trial) {
+        if (trial) {
+            if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) failures.set(0);
+        } else if (state.get() == State.CLOSED) {
+            failures.set(0);
+        }
+    }
+
+    /**
+     * Records a failed execution, opening the breaker if the failed execution was a trial,
+     * or if the failure threshold has been reached while the breaker is closed.
+     *
+     * @param trial Whether the execution was granted {@link Permit#TRIAL}.
+     * @return True if this failure opened the breaker, false otherwise.
+     */
+    boolean recordFailure(boolean trial) {
+        State expected = trial ? State.HALF_OPEN : State.CLOSED;
+        if (state.get() != expected) return false;
+        if (!trial && failures.incrementAndGet() < failureThreshold) return false;
+
+        openedAt = System.nanoTime();
+        if (state.compareAndSet(expected, State.OPEN)) {
+            failures.set(0);
+            trips.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ends a trial execution which neither succeeded nor failed, for example because it was cancelled.
+     * The breaker opens again without starting a new cool-down, so the next execution is a new trial.
+     * This has no effect if the trial has already been recorded.
+     */
+    void abandonTrial() {
+        state.compareAndSet(State.HALF_OPEN, State.OPEN);
+    }
+
+    /**
+     * Closes the breaker and clears the failure count, allowing executions immediately.
+     */
+    public void reset() {
+        failures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    /**
+     * @return The current state of the breaker.
+     */
+    public @NotNull State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return How long the breaker stays open before a trial execution is allowed.
+     */
+    @Contract(pure = true)
+    public @NotNull Duration getCoolDown() {
+        return Duration.ofNanos(coolDown);
+    }
+
+    /**
+     * @return The number of times the breaker has opened.
+     */
+    public long getTrips() {
+        return trips.sum();
+    }
+
+    /**
+     * @return The number of executions which were skipped because the breaker was open.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * The outcome of {@link #tryAcquire()}.
+     */
+    enum Permit {
+        /**
+         * The execution may run.
+         */
+        GRANTED,
+        /**
+         * The execution may run, and is the trial which decides whether the breaker closes again.
+         */
+        TRIAL,
+        /**
+         * The execution must be skipped.
+         */
+        DENIED
+    }
+
+    /**
+     * The state of a {@link CircuitBreaker}.
+     */
+    public enum State {
+        /**
+         * Every execution is allowed.
+         */
+        CLOSED,
+        /**
+         * Every execution is skipped until the cool-down has elapsed.
+         */
+        OPEN,
+        /**
+         * A single trial execution is running, and every other execution is skipped.
+         */
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends execution failures to a rotating log file, without ever blocking the thread which failed.
+ * <p>
+ * Failures are buffered in memory and written on a dedicated thread. When the buffer is full,
+ * the oldest failures are discarded. When the current file exceeds the maximum size, it is renamed
+ * to {@code <name>.1.log} (shifting older files up), and a new file is started. Only the configured
+ * number of old files are kept.
+ *
+ * @author SimplexDevelopment
+ * @see SchedulingSystem#enableDeadLetterLog(long, int)
+ */
+public final class DeadLetterWriter implements Disposable {
+    /**
+     * How many failures may be waiting to be written before the oldest are discarded.
+     */
+    private static final int BUFFER_SIZE = 1024;
+    /**
+     * The directory which holds the log files.
+     */
+    private final Path directory;
+    /**
+     * The base name of the log files.
+     */
+    private final String name;
+    /**
+     * The size (in bytes) at which the current file is rotated.
+     */
+    private final long maxFileSize;
+    /**
+     * How many rotated files are kept.
+     */
+    private final int maxFiles;
+    /**
+     * The dedicated thread which writes the failures.
+     */
+    private final Scheduler writerThread;
+    /**
+     * The subscription to the failures.
+     */
+    private final Disposable subscription;
+    /**
+     * The number of failures which were discarded because the buffer was full, or could not be written.
+     */
+    private final LongAdder discarded = new LongAdder();
+    /**
+     * The writer for the current file, or null if it has not been opened.
+     */
+    private BufferedWriter writer;
+    /**
+     * Whether this writer has been disposed.
+     */
+    private volatile boolean disposed = false;
+
+    /**
+     * Creates a new dead-letter writer and subscribes it to the given failures.
+     *
+     * @param failures    The failures to write.
+     * @param directory   The directory which holds the log files. It is created if it does not exist.
+     * @param name        The base name of the log files.
+     * @param maxFileSize The size (in bytes) at which the current file is rotated.
+     * @param maxFiles    How many rotated files are kept.
+     */
+    public DeadLetterWriter(@NotNull Flux<ExecutionFailure> failures,
+                            @NotNull Path directory,
+                            @NotNull String name,
+                            long maxFileSize,
+                            int maxFiles) {
+        this.directory = directory;
+        this.name = name;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = Math.max(0, maxFiles);
+        this.writerThread = Schedulers.newSingle("SimplexSS Dead Letters - " + name, true);
+        this.subscription = failures
+                .onBackpressureBuffer(BUFFER_SIZE, dropped -> discarded.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                .publishOn(writerThread)
+                .doFinally(signal -> close())
+                .subscribe(this::write);
+    }
+
+    /**
+     * Writes a single failure to the current file, rotating the file first if it has grown too large.
+     * This is only ever called on the writer thread.
+     *
+     * @param failure The failure to write.
+     */
+    private synchronized void write(ExecutionFailure failure) {
+        if (disposed) return;
+
+        StringWriter entry = new StringWriter();
+        PrintWriter printer = new PrintWriter(entry);
+        printer.println("[" + failure.timestamp() + "] "
+                + failure.poolName() + "/" + failure.service().getName()
+                + " (" + failure.service().getUniqueId() + ")");
+        failure.error().printStackTrace(printer);
+        printer.flush();
+
+        try {
+            Path file = directory.resolve(name + ".log");
+            if (writer != null && Files.size(file) >= maxFileSize) {
+                rotate(file);
+            }
+            if (writer == null) {
+                Files.createDirectories(directory);
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(entry.toString());
+            writer.flush();
+        } catch (IOException ex) {
+            discarded.increment();
+            close();
+        }
+    }
+
+    /**
+     * Closes the current file and shifts every file up by one, discarding the oldest.
+     *
+     * @param file The current file.
+     * @throws IOException If the files could not be renamed.
+     */
+    private void rotate(Path file) throws IOException {
+        close();
+
+        if (maxFiles == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+
+        Files.deleteIfExists(directory.resolve(name + "." + maxFiles + ".log"));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = directory.resolve(name + "." + i + ".log");
+            if (Files.exists(source)) {
+                Files.move(source, directory.resolve(name + "." + (i + 1) + ".log"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, directory.resolve(name + ".1.log"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Closes the current file, if it is open.
+     */
+    private synchronized void close() {
+        if (writer == null) return;
+
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // The file is being discarded; there is nothing more to do with it.
+        }
+        writer = null;
+    }
+
+    /**
+     * @return The number of failures which were discarded because the buffer was full, or could not be written.
+     */
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    /**
+     * Stops writing failures, closes the current file, and releases the writer thread.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+        subscription.dispose();
+        close();
+        writerThread.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.Scannable;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Scheduler} for the main server thread which runs its tasks in earliest-deadline-first order.
+ * <p>
+ * Instead of handing each task to the Bukkit scheduler, this scheduler runs a single driver every tick.
+ * When a task becomes due, it is released into a ready queue with a deadline: the time it was released,
+ * plus its relative deadline. Each tick, the driver runs ready tasks in order of their deadline, until the
+ * per-tick time budget is used up; the remaining tasks stay in the ready queue and run first on the next tick,
+ * as they are now the most overdue. At least one task is run every tick, so no task is starved.
+ * Under pressure, time-critical tasks (those with a short relative deadline) therefore stay on time,
+ * while the others absorb the delay.
+ * <p>
+ * The relative deadline of a periodic task is its period, and that of a one-shot task is a single tick,
+ * unless a deadline is given explicitly with {@link #schedulePeriodically(Runnable, long, long, Duration)}.
+ * A {@link ServicePool} on this scheduler uses the deadline of each {@link ExecutableService}, if it has one.
+ *
+ * @author SimplexDevelopment
+ * @see ServiceManager#deadlineServicePool(String, org.bukkit.plugin.java.JavaPlugin, Duration, io.github.simplexdevelopment.api.IService...)
+ */
+public final class DeadlineScheduler implements Scheduler, Scannable {
+    /**
+     * The length of a server tick, in nanoseconds.
+     */
+    private static final long TICK_NANOS = 50_000_000L;
+    /**
+     * The tasks which are not due yet, ordered by the tick they are released on.
+     */
+    private final PriorityQueue<Job> waiting = new PriorityQueue<>(Comparator
+            .comparingLong((Job job) -> job.releaseTick)
+            .thenComparingLong(job -> job.sequence));
+    /**
+     * The tasks which are due, ordered by deadline.
+     */
+    private final PriorityQueue<Job> ready = new PriorityQueue<>(Comparator
+            .comparingLong((Job job) -> job.deadline)
+            .thenComparingLong(job -> job.sequence));
+    /**
+     * How long (in nanoseconds) the driver may run tasks each tick.
+     */
+    private final long budgetNanos;
+    /**
+     * The driver, which runs every tick on the main server thread.
+     */
+    private final Disposable driver;
+    /**
+     * The number of ticks the driver has run.
+     */
+    private long currentTick = 0L;
+    /**
+     * The sequence number of the next task, used to keep the order of tasks with equal deadlines.
+     */
+    private long sequence = 0L;
+    /**
+     * The number of tasks which have run.
+     */
+    private long executed = 0L;
+    /**
+     * The number of tasks which started after their deadline.
+     */
+    private long late = 0L;
+    /**
+     * The number of times a ready task was left for a later tick because the budget was used up.
+     */
+    private long deferred = 0L;
+    /**
+     * The total lateness (in nanoseconds) of the tasks which started after their deadline.
+     */
+    private long totalLatenessNanos = 0L;
+    /**
+     * The largest lateness (in nanoseconds) of any task.
+     */
+    private long maxLatenessNanos = 0L;
+    /**
+     * Whether this scheduler has been disposed.
+     */
+    private volatile boolean disposed = false;
+
+    /**
+     * Creates a new earliest-deadline-first scheduler.
+     *
+     * @param mainScheduler The scheduler of the main server thread, which runs the driver every tick.
+     * @param tickBudget    How long the driver may run tasks each tick.
+     */
+    public DeadlineScheduler(@NotNull Scheduler mainScheduler, @NotNull Duration tickBudget) {
+        this.budgetNanos = tickBudget.toNanos();
+        this.driver = mainScheduler.schedulePeriodically(this::tick, 0L, 50L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public @NotNull Disposable schedule(@NotNull Runnable task) {
+        return enqueue(task, 1L, 0L, TICK_NANOS, null);
+    }
+
+    @Override
+    public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @Nullable TimeUnit unit) {
+        return enqueue(task, Math.max(1L, ReactorBukkitScheduler.toTicks(delay, unit)), 0L, TICK_NANOS, null);
+    }
+
+    @Override
+    public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @Nullable TimeUnit unit) {
+        if (period <= 0L) {
+            throw new IllegalArgumentException("Period must be greater than 0L");
+        }
+
+        long periodTicks = Math.max(1L, ReactorBukkitScheduler.toTicks(period, unit));
+        return enqueue(task,
+                Math.max(1L, ReactorBukkitScheduler.toTicks(initialDelay, unit)),
+                periodTicks,
+                periodTicks * TICK_NANOS,
+                null);
+    }
+
+    /**
+     * Runs the given task repeatedly, with an explicit relative deadline.
+     *
+     * @param task         The task to run.
+     * @param initialDelay How many ticks to wait before the task is first released.
+     * @param period       How many ticks to wait between releases of the task, or 0 to release it only once.
+     * @param deadline     How soon after each release the task should start.
+     * @return A disposable that can be used to cancel the task.
+     */
+    public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @NotNull Duration deadline) {
+        return enqueue(task, Math.max(1L, initialDelay), Math.max(0L, period), deadline.toNanos(), null);
+    }
+
+    /**
+     * Adds a task to the waiting queue.
+     *
+     * @param task     The task to run.
+     * @param delay    How many ticks from now the task is first released. This is always at least 1.
+     * @param period   How many ticks to wait between releases, or 0 if the task only runs once.
+     * @param deadline How soon (in nanoseconds) after each release the task should start.
+     * @param owner    The tasks of the worker which scheduled the task, or null if it was scheduled directly.
+     * @return The queued task.
+     * @throws java.util.concurrent.RejectedExecutionException If this scheduler has been disposed.
+     */
+    private synchronized Job enqueue(Runnable task, long delay, long period, long deadline, @Nullable Disposable.Composite owner) {
+        if (disposed) {
+            throw Exceptions.failWithRejected();
+        }
+
+        Job job = new Job(task, period, deadline, owner);
+        if (owner != null && !owner.add(job)) {
+            job.dispose();
+            return job;
+        }
+
+        job.releaseTick = currentTick + delay;
+        job.sequence = sequence++;
+        waiting.add(job);
+        return job;
+    }
+
+    /**
+     * Releases the tasks which are due, and runs ready tasks in deadline order until the budget is used up.
+     * This runs on the main server thread, once per tick.
+     */
+    private void tick() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            currentTick++;
+            Job next;
+            while ((next = waiting.peek()) != null && next.releaseTick <= currentTick) {
+                waiting.poll();
+                if (next.disposed) continue;
+                next.deadline = start + next.relativeDeadline;
+                ready.add(next);
+            }
+        }
+
+        boolean first = true;
+        Job job;
+        while ((job = nextReady(first, start)) != null) {
+            first = false;
+            long lateness = System.nanoTime() - job.deadline;
+            try {
+                job.task.run();
+            } catch (RuntimeException ex) {
+                Operators.onErrorDropped(ex, Context.empty());
+            } finally {
+                // An Error still propagates to the driver, but a periodic task must be released again regardless.
+                completed(job, lateness);
+            }
+        }
+    }
+
+    /**
+     * Removes the ready task with the earliest deadline, if the budget allows another task to run.
+     *
+     * @param first Whether no task has run during this tick yet. The first task always runs.
+     * @param start When the tick started, measured by {@link System#nanoTime()}.
+     * @return The next task to run, or null if there are none, or the budget has been used up.
+     */
+    private synchronized @Nullable Job nextReady(boolean first, long start) {
+        Job job;
+        while ((job = ready.peek()) != null && job.disposed) {
+            ready.poll();
+        }
+        if (job == null) return null;
+
+        if (!first && System.nanoTime() - start >= budgetNanos) {
+            deferred += ready.size();
+            return null;
+        }
+        return ready.poll();
+    }
+
+    /**
+     * Records a task which has run, and schedules its next release if it is periodic.
+     *
+     * @param job      The task which has run.
+     * @param lateness How long (in nanoseconds) after its deadline the task started; negative if it started early.
+     */
+    private synchronized void completed(Job job, long lateness) {
+        executed++;
+        if (lateness > 0L) {
+            late++;
+            totalLatenessNanos += lateness;
+            if (lateness > maxLatenessNanos) maxLatenessNanos = lateness;
+        }
+
+        if (job.period > 0L && !job.disposed) {
+            // A task which fell behind is released on its next period, rather than running several times to catch up.
+            job.releaseTick = Math.max(job.releaseTick + job.period, currentTick + 1L);
+            job.sequence = sequence++;
+            waiting.add(job);
+        } else if (job.owner != null) {
+            job.owner.remove(job);
+        }
+    }
+
+    /**
+     * @return A point-in-time view of how late the tasks of this scheduler have started.
+     */
+    public synchronized @NotNull LatenessStatistics getStatistics() {
+        return new LatenessStatistics(executed,
+                late,
+                deferred,
+                Duration.ofNanos(late == 0L ? 0L : totalLatenessNanos / late),
+                Duration.ofNanos(maxLatenessNanos),
+                ready.size());
+    }
+
+    @Override
+    public @NotNull Worker createWorker() {
+        return new DeadlineWorker();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public @Nullable Object scanUnsafe(@NotNull Attr key) {
+        if (key == Attr.BUFFERED) {
+            synchronized (this) {
+                return ready.size();
+            }
+        }
+        if (key == Attr.CAPACITY) return 1;
+        if (key == Attr.TERMINATED || key == Attr.CANCELLED) return disposed;
+        return null;
+    }
+
+    /**
+     * Stops the driver, and cancels every pending task.
+     */
+    @Override
+    public void dispose() {
+        List<Job> jobs;
+        synchronized (this) {
+            disposed = true;
+            jobs = new ArrayList<>(waiting);
+            jobs.addAll(ready);
+            waiting.clear();
+            ready.clear();
+        }
+        // The queues are cleared first, as disposing a job removes it from them.
+        jobs.forEach(Job::dispose);
+        driver.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    @Override
+    public String toString() {
+        return "deadline";
+    }
+
+    /**
+     * A task of a {@link DeadlineScheduler}.
+     */
+    private final class Job implements Disposable {
+        private final Runnable task;
+        private final long period;
+        private final long relativeDeadline;
+        private final Disposable.Composite owner;
+        private long releaseTick;
+        private long deadline;
+        private long sequence;
+        private volatile boolean disposed = false;
+
+        private Job(Runnable task, long period, long relativeDeadline, @Nullable Disposable.Composite owner) {
+            this.task = task;
+            this.period = period;
+            this.relativeDeadline = relativeDeadline;
+            this.owner = owner;
+        }
+
+        /**
+         * Cancels this task, and stops the scheduler and the worker from holding on to it until its release tick.
+         * A task which is already ready is left for the driver, which skips it on the next tick.
+         */
+        @Override
+        public void dispose() {
+            if (disposed) return;
+            disposed = true;
+
+            synchronized (DeadlineScheduler.this) {
+                waiting.remove(this);
+            }
+            if (owner != null) owner.remove(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * A worker which tracks its tasks, so that they can be cancelled together.
+     */
+    private final class DeadlineWorker implements Worker {
+        private final Disposable.Composite tasks = Disposables.composite();
+
+        @Override
+        public @NotNull Disposable schedule(@NotNull Runnable task) {
+            return enqueue(task, 1L, 0L, TICK_NANOS, tasks);
+        }
+
+        @Override
+        public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+            return enqueue(task, Math.max(1L, ReactorBukkitScheduler.toTicks(delay, unit)), 0L, TICK_NANOS, tasks);
+        }
+
+        @Override
+        public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @NotNull TimeUnit unit) {
+            if (period <= 0L) {
+                throw new IllegalArgumentException("Period must be greater than 0L");
+            }
+
+            long periodTicks = Math.max(1L, ReactorBukkitScheduler.toTicks(period, unit));
+            return enqueue(task,
+                    Math.max(1L, ReactorBukkitScheduler.toTicks(initialDelay, unit)),
+                    periodTicks,
+                    periodTicks * TICK_NANOS,
+                    tasks);
+        }
+
+        @Override
+        public void dispose() {
+            tasks.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return tasks.isDisposed();
+        }
+    }
+
+    /**
+     * A point-in-time view of how late the tasks of a {@link DeadlineScheduler} have started.
+     *
+     * @param executed     The number of tasks which have run.
+     * @param late         The number of tasks which started after their deadline.
+     * @param deferred     The number of times a ready task was left for a later tick because the budget was used up.
+     * @param meanLateness The average lateness of the tasks which started after their deadline.
+     * @param maxLateness  The largest lateness of any task.
+     * @param ready        The number of tasks which are due and waiting to run.
+     */
+    public record LatenessStatistics(long executed,
+                                     long late,
+                                     long deferred,
+                                     @NotNull Duration meanLateness,
+                                     @NotNull Duration maxLateness,
+                                     int ready) {
+    }
+}
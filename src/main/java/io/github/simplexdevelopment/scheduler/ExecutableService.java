@@ -25,12 +25,20 @@
 package io.github.simplexdevelopment.scheduler;
 
 import io.github.simplexdevelopment.api.IService;
+import io.github.simplexdevelopment.api.SyncService;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 
 /**
  * An abstract service class meant for easy implementation and creation of services.
@@ -42,30 +50,62 @@ public abstract class ExecutableService implements IService {
      * The name of the service.
      */
     private final String service_name;
+    /**
+     * The unique identifier of the service, computed once from the name.
+     */
+    private final UUID uniqueId;
+    /**
+     * The numerical identifier of the service, computed once from the unique identifier.
+     */
+    private final int numericalId;
     /**
      * How long the service should wait before executing the first time.
      */
-    private final long delay;
+    private volatile long delay;
     /**
      * How long the service should wait between executions.
      */
-    private final long period;
+    private volatile long period;
     /**
      * If the service should be executed once or continuously.
      */
-    private final boolean repeating;
+    private volatile boolean repeating;
     /**
      * If the service should be allowed to stop while executing.
      */
     private final boolean mayInterruptWhenRunning;
     /**
-     * The service's execution thread.
+     * The service's execution thread. If no pool was given, this stays null until the default pool is first needed.
      */
-    private ServicePool parentPool;
+    private volatile ServicePool parentPool;
     /**
      * Whether the service has been cancelled or not.
      */
-    private boolean cancelled = false;
+    private volatile boolean cancelled = false;
+    /**
+     * How long a single execution may run before it is cancelled, or null if executions may run indefinitely.
+     */
+    private volatile Duration timeout;
+    /**
+     * How soon after it becomes due each execution should start, or null to use the default of the pool's scheduler.
+     */
+    private volatile Duration deadline;
+    /**
+     * The token of the execution which is currently in flight, or null if the service is idle.
+     */
+    private final AtomicReference<CancellationToken> execution = new AtomicReference<>();
+    /**
+     * How failed executions should be retried, or null if they should not be retried.
+     */
+    private volatile RetryPolicy retryPolicy;
+    /**
+     * The circuit breaker which stops this service from executing after repeated failures, or null if there is none.
+     */
+    private volatile CircuitBreaker circuitBreaker;
+    /**
+     * The rate limiter applied to this service, or null if the service is not rate limited.
+     */
+    private volatile RateLimiter rateLimiter;
 
     /**
      * Creates a new instance of an executable service.
@@ -75,14 +115,12 @@ public abstract class ExecutableService implements IService {
      * @param service_name A namespaced key which can be used to identify the service.
      */
     public ExecutableService(@NotNull String service_name) {
-        this((new ServicePool("defaultPool" + SchedulingSystem.denom, false)),
+        this(null,
                 service_name,
                 0L,
                 0L,
                 false,
                 false);
-
-        SchedulingSystem.denom++;
     }
 
     /**
@@ -177,19 +215,18 @@ public abstract class ExecutableService implements IService {
             @NotNull Boolean repeating,
             @NotNull Boolean mayInterruptWhenRunning) {
         this.service_name = service_name;
+        this.uniqueId = IService.super.getUniqueId();
+        this.numericalId = uniqueId.hashCode();
         this.repeating = repeating;
         this.delay = Objects.requireNonNullElse(delay, 0L);
         this.period = Objects.requireNonNullElse(period, (20L * 60L) * 20L);
         this.mayInterruptWhenRunning = mayInterruptWhenRunning;
 
-        if (parentPool == null) {
-            this.parentPool = new ServicePool("defaultPool" + SchedulingSystem.denom, false);
-            SchedulingSystem.denom++;
-        } else {
+        // Without a parent pool, the default pool is only created once it is needed; see currentPool().
+        if (parentPool != null) {
             this.parentPool = parentPool;
+            parentPool.addService(this);
         }
-
-        this.parentPool.getAssociatedServices().add(this);
     }
 
     @Override
@@ -207,6 +244,24 @@ public abstract class ExecutableService implements IService {
         return repeating;
     }
 
+    /**
+     * Changes the timings of this service. This does not affect a timer which has already been created;
+     * use {@link ServicePool#reschedule(IService, long, long, boolean)} to replace the timer as well.
+     *
+     * @param delay     How long (in ticks) the service should wait before executing the first time.
+     * @param period    How long (in ticks) the service should wait between executions.
+     * @param repeating If the service should be scheduled for repeated executions or not.
+     */
+    void setTimings(long delay, long period, boolean repeating) {
+        if (repeating && period <= 0L) {
+            throw new IllegalArgumentException("Period must be greater than 0L");
+        }
+
+        this.delay = Math.max(0L, delay);
+        this.period = period;
+        this.repeating = repeating;
+    }
+
     /**
      * Cancels the execution of this service.
      *
@@ -217,16 +272,17 @@ public abstract class ExecutableService implements IService {
     }
 
     /**
-     * Cancels the execution of this service.
+     * Cancels the execution of this service. A cancelled service will not start any new executions.
+     * If {@link #mayInterruptWhenRunning} is true, the execution which is currently in flight is also cancelled;
+     * otherwise it is allowed to complete.
      *
      * @param cancel Whether the service should be cancelled or not.
      */
     public Mono<Void> setCancelled(boolean cancel) {
-        if (!mayInterruptWhenRunning) {
-            return Mono.empty();
-        }
-
         cancelled = cancel;
+        if (cancel && mayInterruptWhenRunning) {
+            cancelExecution();
+        }
         return cancel();
     }
 
@@ -241,9 +297,278 @@ public abstract class ExecutableService implements IService {
         return Mono.empty();
     }
 
+    /**
+     * Cancels the execution which is currently in flight, without cancelling the service itself.
+     * The subscription to {@link #start()} is cancelled, and if {@link #mayInterruptWhenRunning} is true,
+     * the worker thread running the execution is interrupted.
+     *
+     * @return true if an execution was cancelled, false if the service was idle.
+     */
+    public boolean cancelExecution() {
+        CancellationToken token = execution.get();
+        return token != null && token.cancel();
+    }
+
+    /**
+     * @return The token of the execution which is currently in flight, or null if the service is idle.
+     */
+    public @Nullable CancellationToken getCurrentExecution() {
+        return execution.get();
+    }
+
+    /**
+     * @return How long a single execution may run before it is cancelled, or null if executions may run indefinitely.
+     */
+    public @Nullable Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets how long a single execution may run before it is cancelled.
+     * When an execution times out, the subscription to {@link #start()} is cancelled,
+     * and if {@link #mayInterruptWhenRunning} is true, the worker thread running the execution is interrupted.
+     * A timeout is terminal: it cancels the {@link CancellationToken} of the execution, so the execution fails with
+     * a {@link java.util.concurrent.TimeoutException} and is not retried, even if a {@link RetryPolicy} is set.
+     *
+     * @param timeout The execution timeout, or null to let executions run indefinitely.
+     */
+    public void setTimeout(@Nullable Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return How soon after it becomes due each execution should start, or null if the default of the pool's scheduler is used.
+     */
+    public @Nullable Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets how soon after it becomes due each execution should start. This only has an effect on pools which run on
+     * a {@link DeadlineScheduler}, where executions with earlier deadlines run first, and takes effect the next time
+     * the service is queued or rescheduled.
+     *
+     * @param deadline The relative deadline, or null to use the default of the pool's scheduler.
+     */
+    public void setDeadline(@Nullable Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return How failed executions should be retried, or null if they are not retried.
+     */
+    public @Nullable RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets how failed executions should be retried. Each retry waits on the scheduler of the parent pool.
+     * Executions which were cancelled, including those which exceeded the {@link #setTimeout(Duration) timeout},
+     * are never retried.
+     *
+     * @param retryPolicy The retry policy, or null if failed executions should not be retried.
+     */
+    public void setRetryPolicy(@Nullable RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return The circuit breaker attached to this service, or null if there is none.
+     */
+    public @Nullable CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Attaches a circuit breaker to this service. An execution is only counted as failed
+     * once all of its retries (if any) have failed.
+     *
+     * @param circuitBreaker The circuit breaker to attach, or null to remove the current circuit breaker.
+     */
+    public void setCircuitBreaker(@Nullable CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Executes this service once. Each execution is given a new {@link CancellationToken},
+     * which is available to {@link #start()} through {@link CancellationToken#current()}.
+     * If the pool is traced, the execution also starts a new trace, available through {@link TraceContext#current()}.
+     * If the service has been cancelled, or its {@link CircuitBreaker} is open, this does nothing.
+     */
+    @Override
+    public void run() {
+        if (cancelled) return;
+
+        CircuitBreaker breaker = this.circuitBreaker;
+        CircuitBreaker.Permit permit = breaker == null ? CircuitBreaker.Permit.GRANTED : breaker.tryAcquire();
+        if (permit == CircuitBreaker.Permit.DENIED) return;
+        boolean trial = permit == CircuitBreaker.Permit.TRIAL;
+
+        ServicePool pool = currentPool();
+        CancellationToken token = new CancellationToken(mayInterruptWhenRunning);
+        execution.set(token);
+
+        Mono<Void> mono;
+        try {
+            mono = start().doOnCancel(token::interrupt);
+        } catch (RuntimeException | Error ex) {
+            execution.compareAndSet(token, null);
+            if (trial) breaker.abandonTrial();
+            throw ex;
+        }
+        Duration limit = this.timeout;
+        if (limit != null) {
+            mono = mono.timeout(limit, Schedulers.parallel());
+        }
+        RetryPolicy retry = this.retryPolicy;
+        if (retry != null && retry.maxRetries() > 0) {
+            // The timeout cancels the token through doOnCancel, so a timed-out execution is not retried either.
+            mono = mono.retryWhen(retry.toRetry(pool.getScheduler(), th -> !token.isCancelled()));
+        }
+        // Asynchronous executions and retry backoff keep running on the pool's scheduler after this method returns.
+        mono = pool.hold(mono);
+
+        ExecutionTracer tracer = pool.getTracer();
+        if (tracer != null && !tracer.isDisposed()) {
+            TraceContext trace = tracer.begin(pool, this);
+            long start = System.nanoTime();
+            Thread thread = Thread.currentThread();
+            mono = mono.doFinally(signal -> tracer.record(trace, getName(), start, thread))
+                    .contextWrite(context -> context.put(TraceContext.class, trace));
+        }
+
+        try {
+            // The token is bound below doFinally, so that cancelling the execution also signals doFinally.
+            mono.doFinally(signal -> {
+                        execution.compareAndSet(token, null);
+                        // A trial which was cancelled, or ended without reaching onSuccess or onFailure,
+                        // must not leave the breaker half-open forever.
+                        if (trial) breaker.abandonTrial();
+                    })
+                    .doOnSubscribe(token::bind)
+                    .contextWrite(context -> context.put(CancellationToken.class, token))
+                    .subscribe(null, th -> onFailure(th, trial), () -> onSuccess(trial));
+        } finally {
+            token.release();
+        }
+    }
+
+    /**
+     * Executes this service once on the current thread, without Reactor. This is used by the parent pool
+     * when this service is also a {@link SyncService}. Cancellation and the circuit breaker are honoured,
+     * but the timeout and retry policy only apply to executions started through {@link #run()}.
+     *
+     * @param sync This service, as a {@link SyncService}.
+     */
+    void executeSync(@NotNull SyncService sync) {
+        if (cancelled) return;
+
+        CircuitBreaker breaker = this.circuitBreaker;
+        CircuitBreaker.Permit permit = breaker == null ? CircuitBreaker.Permit.GRANTED : breaker.tryAcquire();
+        if (permit == CircuitBreaker.Permit.DENIED) return;
+        boolean trial = permit == CircuitBreaker.Permit.TRIAL;
+
+        try {
+            sync.execute();
+        } catch (RuntimeException ex) {
+            onFailure(ex, trial);
+            return;
+        } catch (Error ex) {
+            // An Error escapes without being recorded, so the trial has to be ended here.
+            if (trial) breaker.abandonTrial();
+            throw ex;
+        }
+        onSuccess(trial);
+    }
+
+    /**
+     * Called when an execution completes successfully.
+     *
+     * @param trial Whether the execution was the trial of a half-open {@link CircuitBreaker}.
+     */
+    private void onSuccess(boolean trial) {
+        CircuitBreaker breaker = this.circuitBreaker;
+        if (breaker != null) breaker.recordSuccess(trial);
+    }
+
+    /**
+     * Called when an execution fails, after all of its retries have failed.
+     * The failure is published to {@link SchedulingSystem#getFailures()}, and logged through the plugin's logger
+     * unless the plugin is unavailable.
+     *
+     * @param th The error which caused the execution to fail.
+     */
+    void onFailure(Throwable th) {
+        onFailure(th, false);
+    }
+
+    /**
+     * Called when an execution fails, after all of its retries have failed.
+     *
+     * @param th    The error which caused the execution to fail.
+     * @param trial Whether the execution was the trial of a half-open {@link CircuitBreaker}.
+     * @see #onFailure(Throwable)
+     */
+    private void onFailure(Throwable th, boolean trial) {
+        ServicePool pool = currentPool();
+        pool.getMetrics(this).recordFailure();
+        FailureChannel.publish(new ExecutionFailure(this, pool, Instant.now(), th));
+
+        CircuitBreaker breaker = this.circuitBreaker;
+        boolean tripped = breaker != null && breaker.recordFailure(trial);
+
+        JavaPlugin plugin = getPlugin();
+        if (plugin == null) return;
+
+        if (tripped) {
+            plugin.getLogger().log(Level.WARNING, "The service " + getName()
+                    + " has failed repeatedly and will not be executed for "
+                    + breaker.getCoolDown().toMillis() + "ms.", th);
+        } else {
+            plugin.getLogger().log(Level.WARNING, "The service " + getName() + " failed to execute.", th);
+        }
+    }
+
+    /**
+     * @return The rate limiter applied to this service, or null if the service is not rate limited.
+     */
+    public @Nullable RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Attaches a rate limiter to this service. Every execution of this service will have to acquire
+     * a permit from the limiter before it can run. This is checked before the rate limiter of the parent pool.
+     *
+     * @param rateLimiter The rate limiter to attach, or null to remove the current rate limiter.
+     */
+    public void setRateLimiter(@Nullable RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
     @Override
     public Mono<ServicePool> getParentPool() {
-        return Mono.just(parentPool);
+        return Mono.fromSupplier(this::currentPool);
+    }
+
+    /**
+     * Gets the {@link ServicePool} which this service is currently executing on.
+     * If this service was created without a pool, its default pool is created by the first call.
+     *
+     * @return The {@link ServicePool} which this service is currently executing on.
+     */
+    ServicePool currentPool() {
+        ServicePool pool = parentPool;
+        if (pool != null) return pool;
+
+        synchronized (this) {
+            if (parentPool == null) {
+                ServicePool defaultPool = new ServicePool("defaultPool" + SchedulingSystem.denom.getAndIncrement(), false);
+                defaultPool.addService(this);
+                parentPool = defaultPool;
+            }
+            return parentPool;
+        }
     }
 
     @Override
@@ -251,6 +576,16 @@ public abstract class ExecutableService implements IService {
         return service_name;
     }
 
+    @Override
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public int getNumericalId() {
+        return numericalId;
+    }
+
     @Override
     public Mono<Void> setParentPool(ServicePool servicePool) {
         return Mono.create(sink -> {
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import io.github.simplexdevelopment.api.IService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * A record of a single failed execution of a service, as published by {@link SchedulingSystem#getFailures()}.
+ *
+ * @param service   The service which failed.
+ * @param pool      The pool the service was executing on, or null if it was executed outside a pool.
+ * @param timestamp When the failure occurred.
+ * @param error     The error which caused the failure.
+ * @author SimplexDevelopment
+ */
+public record ExecutionFailure(@NotNull IService service,
+                               @Nullable ServicePool pool,
+                               @NotNull Instant timestamp,
+                               @NotNull Throwable error) {
+    /**
+     * @return The name of the pool the service was executing on, or "none" if it was executed outside a pool.
+     */
+    public @NotNull String poolName() {
+        return pool == null ? "none" : pool.getName();
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import io.github.simplexdevelopment.api.IService;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Records how long each execution of a service spends in each stage, across scheduler hops,
+ * and writes the spans to a file in the Chrome Trace Event format.
+ * The file can be opened in {@code chrome://tracing}, Perfetto or speedscope for offline, flame-style analysis.
+ * <p>
+ * While a tracer is attached to a {@link ServicePool}, every execution of an {@link ExecutableService} in the pool
+ * starts a new trace, and a {@link TraceContext} is placed in the Reactor context of {@link ExecutableService#start()}.
+ * Because the Reactor context travels with the subscription, it is still available after the execution
+ * hops to another scheduler with {@code publishOn} or {@code subscribeOn}. Individual stages of an execution
+ * can be timed by applying {@link #stage(String)} to them with {@link Mono#transform(Function)}.
+ * <p>
+ * Recording a span never blocks: spans are placed in a lock-free queue and written by a dedicated daemon thread.
+ * If the queue fills up faster than it can be written, new spans are discarded.
+ *
+ * @author SimplexDevelopment
+ * @see SchedulingSystem#enableTracing()
+ */
+public final class ExecutionTracer implements Disposable {
+    /**
+     * How many spans may be waiting to be written before new spans are discarded.
+     */
+    private static final int MAX_PENDING = 65536;
+    /**
+     * The spans which have been recorded but not yet written.
+     */
+    private final Queue<Span> pending = new ConcurrentLinkedQueue<>();
+    /**
+     * The number of spans in {@link #pending}.
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    /**
+     * The source of span ids.
+     */
+    private final AtomicLong spanIds = new AtomicLong(0L);
+    /**
+     * The number of spans which were discarded.
+     */
+    private final LongAdder discarded = new LongAdder();
+    /**
+     * The reference point of every timestamp, measured by {@link System#nanoTime()}.
+     */
+    private final long epochNanos = System.nanoTime();
+    /**
+     * The dedicated thread which writes the spans.
+     */
+    private final ScheduledExecutorService writerThread;
+    /**
+     * The writer for the trace file.
+     */
+    private final BufferedWriter writer;
+    /**
+     * Whether this tracer has been disposed.
+     */
+    private volatile boolean disposed = false;
+
+    /**
+     * Creates a new tracer which writes to the given file. Any existing file is replaced.
+     *
+     * @param file The file to write the trace to.
+     * @throws IOException If the file could not be created.
+     */
+    public ExecutionTracer(@NotNull Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.writer.write("[\n");
+
+        this.writerThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SimplexSS Tracer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writerThread.scheduleWithFixedDelay(this::flush, 250L, 250L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Times a stage of an execution. If the stage is not subscribed within a traced execution,
+     * the Mono is returned unchanged, so this can be applied unconditionally.
+     *
+     * @param name The name of the stage, as it will appear in the trace.
+     * @param <T>  The type of element emitted by the stage.
+     * @return A function which can be applied to the Mono of the stage with {@link Mono#transform(Function)}.
+     */
+    public static <T> @NotNull Function<Mono<T>, Mono<T>> stage(@NotNull String name) {
+        return mono -> Mono.deferContextual(context -> context.<TraceContext>getOrEmpty(TraceContext.class)
+                .map(parent -> {
+                    TraceContext child = parent.child();
+                    long[] start = new long[1];
+                    Thread[] thread = new Thread[1];
+                    return mono.doOnSubscribe(subscription -> {
+                                start[0] = System.nanoTime();
+                                thread[0] = Thread.currentThread();
+                            })
+                            .doFinally(signal -> child.tracer().record(child, name, start[0], thread[0]))
+                            .contextWrite(inner -> inner.put(TraceContext.class, child));
+                })
+                .orElse(mono));
+    }
+
+    /**
+     * Starts a new trace for an execution of a service.
+     *
+     * @param pool    The pool the service is executing on.
+     * @param service The service which is executing.
+     * @return The context of the root span of the trace.
+     */
+    @NotNull TraceContext begin(@NotNull ServicePool pool, @NotNull IService service) {
+        return new TraceContext(this,
+                ThreadLocalRandom.current().nextLong(),
+                spanIds.incrementAndGet(),
+                0L,
+                pool.getName(),
+                service.getName());
+    }
+
+    /**
+     * @return A new span id, unique within this tracer.
+     */
+    long nextSpanId() {
+        return spanIds.incrementAndGet();
+    }
+
+    /**
+     * Records a completed span.
+     *
+     * @param context    The context of the span.
+     * @param name       The name of the span.
+     * @param startNanos When the span started, measured by {@link System#nanoTime()}.
+     * @param thread     The thread the span started on.
+     */
+    void record(@NotNull TraceContext context, @NotNull String name, long startNanos, Thread thread) {
+        if (disposed) return;
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            discarded.increment();
+            return;
+        }
+
+        long end = System.nanoTime();
+        Thread owner = thread == null ? Thread.currentThread() : thread;
+        pending.offer(new Span(context, name, owner.getName(), owner.getId(),
+                (startNanos - epochNanos) / 1000L, Math.max(0L, (end - startNanos) / 1000L)));
+    }
+
+    /**
+     * Writes every pending span to the trace file. This is only ever called on the writer thread.
+     */
+    private void flush() {
+        try {
+            Span span;
+            while ((span = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                TraceContext context = span.context();
+                writer.write("{\"name\":\"");
+                escape(span.name());
+                writer.write("\",\"cat\":\"");
+                escape(context.pool());
+                writer.write("\",\"ph\":\"X\",\"pid\":1,\"tid\":" + span.threadId()
+                        + ",\"ts\":" + span.startMicros()
+                        + ",\"dur\":" + span.durationMicros()
+                        + ",\"args\":{\"service\":\"");
+                escape(context.service());
+                writer.write("\",\"thread\":\"");
+                escape(span.threadName());
+                writer.write("\",\"trace\":\"" + Long.toHexString(context.traceId())
+                        + "\",\"span\":\"" + Long.toHexString(context.spanId())
+                        + "\",\"parent\":\"" + Long.toHexString(context.parentId())
+                        + "\"}},\n");
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            dispose();
+        }
+    }
+
+    /**
+     * Writes a JSON string value, escaping the characters JSON requires.
+     *
+     * @param value The value to write.
+     * @throws IOException If the value could not be written.
+     */
+    private void escape(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
+    /**
+     * @return The number of spans which were discarded because they could not be written fast enough.
+     */
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    /**
+     * Writes any pending spans, closes the trace file, and releases the writer thread.
+     */
+    @Override
+    public void dispose() {
+        if (disposed) return;
+        disposed = true;
+
+        writerThread.execute(() -> {
+            flush();
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // The trace is complete; there is nothing more to do with the file.
+            }
+        });
+        writerThread.shutdown();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * A completed span, waiting to be written.
+     *
+     * @param context        The context of the span.
+     * @param name           The name of the span.
+     * @param threadName     The name of the thread the span started on.
+     * @param threadId       The id of the thread the span started on.
+     * @param startMicros    When the span started, in microseconds since the tracer was created.
+     * @param durationMicros How long the span lasted, in microseconds.
+     */
+    private record Span(TraceContext context, String name, String threadName, long threadId,
+                        long startMicros, long durationMicros) {
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The central channel which every execution failure is published to.
+ * <p>
+ * Publishing never blocks the failing thread: the failure is placed in a lock-free queue,
+ * and whichever thread finds the channel idle drains the queue into the sink.
+ * Subscribers which cannot keep up miss failures rather than slowing down the executing threads,
+ * and should move any slow work (such as I/O) onto another scheduler.
+ *
+ * @author SimplexDevelopment
+ */
+final class FailureChannel {
+    /**
+     * Failures which have been published but not yet emitted.
+     */
+    private static final Queue<ExecutionFailure> PENDING = new ConcurrentLinkedQueue<>();
+    /**
+     * The number of publishers which have requested a drain. Only the publisher which raises this from 0 drains.
+     */
+    private static final AtomicInteger WIP = new AtomicInteger(0);
+    /**
+     * The sink used to emit failures to subscribers.
+     */
+    private static final Sinks.Many<ExecutionFailure> SINK = Sinks.many().multicast().directBestEffort();
+
+    private FailureChannel() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Publishes a failure to every subscriber.
+     *
+     * @param failure The failure to publish.
+     */
+    static void publish(@NotNull ExecutionFailure failure) {
+        if (SINK.currentSubscriberCount() == 0) return;
+
+        PENDING.offer(failure);
+        if (WIP.getAndIncrement() != 0) return;
+
+        int missed = 1;
+        do {
+            ExecutionFailure next;
+            while ((next = PENDING.poll()) != null) {
+                SINK.tryEmitNext(next);
+            }
+            missed = WIP.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * @return A hot Flux object which emits every failure published after subscription.
+     */
+    static @NotNull Flux<ExecutionFailure> asFlux() {
+        return SINK.asFlux();
+    }
+}
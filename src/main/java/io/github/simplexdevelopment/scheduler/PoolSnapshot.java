@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An immutable, point-in-time view of a {@link ServicePool} and its services.
+ *
+ * @param name           The name of the pool.
+ * @param schedulerType  A description of the scheduler the pool executes on.
+ * @param paused         Whether the pool is paused.
+ * @param queueDepth     The number of tasks waiting on the pool's scheduler, or -1 if the scheduler does not report it.
+ * @param missedFirings  The number of services waiting to replay a firing missed while the pool was paused.
+ * @param skippedFirings The number of firings skipped because the pool was paused.
+ * @param services       A snapshot of every service registered with the pool.
+ * @author SimplexDevelopment
+ * @see ServiceManager#snapshot()
+ */
+public record PoolSnapshot(@NotNull String name,
+                           @NotNull String schedulerType,
+                           boolean paused,
+                           int queueDepth,
+                           int missedFirings,
+                           long skippedFirings,
+                           @NotNull List<ServiceSnapshot> services) {
+    /**
+     * An immutable, point-in-time view of a single service within a {@link ServicePool}.
+     *
+     * @param name           The name of the service.
+     * @param periodic       Whether the service executes periodically.
+     * @param period         How long (in ticks) the service waits between executions.
+     * @param nextFire       When the service is next expected to fire, or null if it is not scheduled.
+     * @param running        Whether the service is currently executing.
+     * @param executions     The number of completed executions.
+     * @param failures       The number of failed executions.
+     * @param lastLatency    How long the most recent execution held the executing thread for.
+     * @param averageLatency The average time recent executions held the executing thread for.
+     */
+    public record ServiceSnapshot(@NotNull String name,
+                                  boolean periodic,
+                                  long period,
+                                  @Nullable Instant nextFire,
+                                  boolean running,
+                                  long executions,
+                                  long failures,
+                                  @NotNull Duration lastLatency,
+                                  @NotNull Duration averageLatency) {
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The {@code /pools} command, which shows a snapshot of every service pool of every {@link ServiceManager}
+ * created with this copy of the library, including those of other plugins which depend on it.
+ *
+ * @author SimplexDevelopment
+ */
+public final class PoolsCommand implements CommandExecutor {
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        // The snapshot never locks the services, so this is safe to run even while the server is lagging.
+        Flux.fromIterable(ServiceManager.instances())
+                .flatMap(ServiceManager::snapshot)
+                .flatMapIterable(pools -> pools)
+                .collectList()
+                .subscribe(pools -> {
+                    if (pools.isEmpty()) {
+                        sender.sendMessage("There are no service pools registered.");
+                        return;
+                    }
+
+                    Instant now = Instant.now();
+                    pools.forEach(pool -> render(sender, pool, now));
+                });
+        return true;
+    }
+
+    private void render(CommandSender sender, PoolSnapshot pool, Instant now) {
+        sender.sendMessage(String.format("%s [%s]%s - %d services, queue %s, missed %d, skipped %d",
+                pool.name(),
+                pool.schedulerType(),
+                pool.paused() ? " (paused)" : "",
+                pool.services().size(),
+                pool.queueDepth() < 0 ? "n/a" : String.valueOf(pool.queueDepth()),
+                pool.missedFirings(),
+                pool.skippedFirings()));
+
+        for (PoolSnapshot.ServiceSnapshot service : pool.services()) {
+            String nextFire = service.nextFire() == null
+                    ? "not scheduled"
+                    : "next in " + Math.max(0L, Duration.between(now, service.nextFire()).toMillis()) + "ms";
+
+            sender.sendMessage(String.format("  %s: %s, %s, %d runs, %d failures, last %.2fms, avg %.2fms",
+                    service.name(),
+                    service.running() ? "running" : "idle",
+                    nextFire,
+                    service.executions(),
+                    service.failures(),
+                    service.lastLatency().toNanos() / 1_000_000D,
+                    service.averageLatency().toNanos() / 1_000_000D));
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Scannable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the statistics of every {@link ServicePool} of a {@link ServiceManager} in the Prometheus text format.
+ * The metrics can be served from an embedded HTTP endpoint bound to the loopback address,
+ * periodically written to a file (for example, for the node exporter's textfile collector), or both.
+ * <p>
+ * Metrics are read directly from the lock-free statistics the pools maintain, and are rendered into a buffer
+ * which is reused between scrapes, so scraping does not lock the execution path or cause allocation spikes.
+ * All scraping and file dumps happen on a single dedicated daemon thread.
+ *
+ * @author SimplexDevelopment
+ * @see SchedulingSystem#getMetricsExporter()
+ */
+public final class PrometheusExporter implements Disposable {
+    /**
+     * The content type of the Prometheus text format.
+     */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    /**
+     * The "le" label values of the latency histogram buckets, in seconds.
+     */
+    private static final String[] BUCKET_LABELS = new String[ServiceMetrics.LATENCY_BUCKETS.length + 1];
+
+    static {
+        for (int i = 0; i < ServiceMetrics.LATENCY_BUCKETS.length; i++) {
+            BUCKET_LABELS[i] = BigDecimal.valueOf(ServiceMetrics.LATENCY_BUCKETS[i], 9).stripTrailingZeros().toPlainString();
+        }
+        BUCKET_LABELS[ServiceMetrics.LATENCY_BUCKETS.length] = "+Inf";
+    }
+
+    /**
+     * The service manager whose pools are exported.
+     */
+    private final ServiceManager serviceManager;
+    /**
+     * The dedicated thread used for scrapes and file dumps.
+     */
+    private final ScheduledExecutorService executor;
+    /**
+     * The buffer the metrics are rendered into, reused between scrapes.
+     */
+    private final StringBuilder text = new StringBuilder(4096);
+    /**
+     * The encoder used to convert the rendered metrics into bytes.
+     */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    /**
+     * The buffer the encoded metrics are written into, reused between scrapes.
+     */
+    private ByteBuffer bytes = ByteBuffer.allocate(8192);
+    /**
+     * The embedded HTTP server, or null if it has not been started.
+     */
+    private HttpServer server;
+    /**
+     * The periodic file dump, if one has been started.
+     */
+    private final Disposable.Swap fileDump = Disposables.swap();
+    /**
+     * Whether this exporter has been disposed.
+     */
+    private volatile boolean disposed = false;
+
+    /**
+     * Creates a new exporter. Nothing is exported until {@link #startHttp(int)} or
+     * {@link #startFileDump(Path, Duration)} is called.
+     *
+     * @param serviceManager The service manager whose pools are exported.
+     */
+    public PrometheusExporter(@NotNull ServiceManager serviceManager) {
+        this.serviceManager = serviceManager;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SimplexSS Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts serving the metrics at {@code http://127.0.0.1:<port>/metrics}.
+     * The endpoint is only bound to the loopback address, so it cannot be reached from other machines.
+     *
+     * @param port The port to listen on.
+     * @throws IOException           If the port could not be bound.
+     * @throws IllegalStateException If this exporter has been disposed.
+     */
+    public synchronized void startHttp(int port) throws IOException {
+        checkNotDisposed();
+        if (server != null) return;
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Starts periodically writing the metrics to a file. Each dump is written to a temporary file first
+     * and then moved into place, so readers never see a partially written file.
+     * Only one file dump runs at a time; calling this again replaces the current dump.
+     *
+     * @param file     The file to write the metrics to.
+     * @param interval How often the metrics are written.
+     * @throws IllegalStateException If this exporter has been disposed.
+     */
+    public synchronized void startFileDump(@NotNull Path file, @NotNull Duration interval) {
+        checkNotDisposed();
+
+        long millis = Math.max(1L, interval.toMillis());
+        ScheduledFuture<?> task = executor.scheduleAtFixedRate(() -> dump(file), millis, millis, TimeUnit.MILLISECONDS);
+        fileDump.update(() -> task.cancel(false));
+    }
+
+    /**
+     * @throws IllegalStateException If this exporter has been disposed.
+     */
+    private void checkNotDisposed() {
+        if (disposed) {
+            throw new IllegalStateException("The exporter has been disposed.");
+        }
+    }
+
+    /**
+     * Renders the current metrics in the Prometheus text format.
+     *
+     * @return The rendered metrics.
+     */
+    public synchronized @NotNull String scrape() {
+        render();
+        return text.toString();
+    }
+
+    /**
+     * Handles a single HTTP scrape.
+     *
+     * @param exchange The HTTP exchange.
+     * @throws IOException If the response could not be written.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1L);
+                return;
+            }
+
+            synchronized (this) {
+                ByteBuffer encoded = renderBytes();
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, encoded.remaining());
+                OutputStream body = exchange.getResponseBody();
+                body.write(encoded.array(), 0, encoded.remaining());
+            }
+        }
+    }
+
+    /**
+     * Writes the current metrics to a file.
+     *
+     * @param file The file to write the metrics to.
+     */
+    private synchronized void dump(Path file) {
+        if (disposed) return;
+
+        try {
+            ByteBuffer encoded = renderBytes();
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporary = parent.resolve(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                out.write(encoded.array(), 0, encoded.remaining());
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignored) {
+            // The next dump will try again.
+        }
+    }
+
+    /**
+     * Renders the current metrics and encodes them into the reused byte buffer.
+     *
+     * @return The byte buffer, positioned at the start of the encoded metrics.
+     */
+    private ByteBuffer renderBytes() {
+        render();
+
+        CharBuffer chars = CharBuffer.wrap(text);
+        int required = (int) (text.length() * encoder.maxBytesPerChar());
+        if (bytes.capacity() < required) {
+            bytes = ByteBuffer.allocate(Math.max(required, bytes.capacity() * 2));
+        }
+
+        bytes.clear();
+        encoder.reset();
+        encoder.encode(chars, bytes, true);
+        encoder.flush(bytes);
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Renders the current metrics into the reused text buffer.
+     */
+    private void render() {
+        text.setLength(0);
+
+        header("simplexss_pool_paused", "gauge", "Whether the pool is paused.");
+        serviceManager.forEachPool(pool -> poolSample("simplexss_pool_paused", pool, pool.isPaused() ? 1L : 0L));
+
+        header("simplexss_pool_skipped_firings_total", "counter", "Firings skipped because the pool was paused.");
+        serviceManager.forEachPool(pool -> poolSample("simplexss_pool_skipped_firings_total", pool, pool.getSkippedFirings()));
+
+        header("simplexss_pool_missed_firings", "gauge", "Services waiting to replay a firing missed while paused.");
+        serviceManager.forEachPool(pool -> poolSample("simplexss_pool_missed_firings", pool, pool.getMissedFiringCount()));
+
+        header("simplexss_pool_queue_depth", "gauge", "Tasks waiting on the pool's scheduler.");
+        serviceManager.forEachPool(pool -> {
+            Integer buffered = Scannable.from(pool.peekScheduler()).scan(Scannable.Attr.BUFFERED);
+            if (buffered != null) poolSample("simplexss_pool_queue_depth", pool, buffered);
+        });
+
+        header("simplexss_pool_busy_threads", "gauge", "Threads currently executing a service of the pool.");
+        serviceManager.forEachPool(pool -> poolSample("simplexss_pool_busy_threads", pool, pool.getBusyThreads()));
+
+        header("simplexss_pool_thread_capacity", "gauge", "The maximum number of threads of the pool's scheduler.");
+        serviceManager.forEachPool(pool -> {
+            Integer capacity = Scannable.from(pool.peekScheduler()).scan(Scannable.Attr.CAPACITY);
+            if (capacity != null) poolSample("simplexss_pool_thread_capacity", pool, capacity);
+        });
+
+        header("simplexss_service_executions_total", "counter", "Completed executions of the service.");
+        serviceManager.forEachPool(pool -> pool.forEachMetrics((service, metrics) ->
+                serviceSample("simplexss_service_executions_total", pool, service.getName(), metrics.getExecutions())));
+
+        header("simplexss_service_failures_total", "counter", "Failed executions of the service.");
+        serviceManager.forEachPool(pool -> pool.forEachMetrics((service, metrics) ->
+                serviceSample("simplexss_service_failures_total", pool, service.getName(), metrics.getFailures())));
+
+        header("simplexss_service_running", "gauge", "Executions of the service currently holding a thread.");
+        serviceManager.forEachPool(pool -> pool.forEachMetrics((service, metrics) ->
+                serviceSample("simplexss_service_running", pool, service.getName(), metrics.getRunning())));
+
+        header("simplexss_service_latency_seconds", "histogram", "Time an execution of the service held its thread.");
+        serviceManager.forEachPool(pool -> pool.forEachMetrics((service, metrics) -> {
+            long cumulative = 0L;
+            for (int i = 0; i < BUCKET_LABELS.length; i++) {
+                cumulative += metrics.getLatencyBucketCount(i);
+                text.append("simplexss_service_latency_seconds_bucket");
+                labels(pool, service.getName());
+                text.append(",le=\"").append(BUCKET_LABELS[i]).append("\"} ").append(cumulative).append('\n');
+            }
+            text.append("simplexss_service_latency_seconds_sum");
+            labels(pool, service.getName());
+            text.append("} ").append(metrics.getTotalLatency() / 1_000_000_000D).append('\n');
+            text.append("simplexss_service_latency_seconds_count");
+            labels(pool, service.getName());
+            text.append("} ").append(cumulative).append('\n');
+        }));
+    }
+
+    /**
+     * Appends the HELP and TYPE lines of a metric.
+     */
+    private void header(String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Appends a sample labelled with a pool.
+     */
+    private void poolSample(String name, ServicePool pool, long value) {
+        text.append(name).append("{pool=\"");
+        escape(pool.getName());
+        text.append("\"} ").append(value).append('\n');
+    }
+
+    /**
+     * Appends a sample labelled with a pool and a service.
+     */
+    private void serviceSample(String name, ServicePool pool, String service, long value) {
+        text.append(name);
+        labels(pool, service);
+        text.append("} ").append(value).append('\n');
+    }
+
+    /**
+     * Appends the label set of a service, leaving the closing brace to the caller so more labels can be added.
+     */
+    private void labels(ServicePool pool, String service) {
+        text.append("{pool=\"");
+        escape(pool.getName());
+        text.append("\",service=\"");
+        escape(service);
+        text.append('"');
+    }
+
+    /**
+     * Appends a label value, escaping the characters the Prometheus text format requires.
+     */
+    private void escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> text.append("\\\\");
+                case '"' -> text.append("\\\"");
+                case '\n' -> text.append("\\n");
+                default -> text.append(c);
+            }
+        }
+    }
+
+    /**
+     * Stops the HTTP endpoint and any file dumps, and releases the exporter thread.
+     */
+    @Override
+    public synchronized void dispose() {
+        disposed = true;
+        fileDump.dispose();
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
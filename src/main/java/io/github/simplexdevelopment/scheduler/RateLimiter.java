@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free token bucket which caps how many executions per second may pass through it.
+ * A rate limiter can be attached to a {@link ServicePool} using {@link ServicePool#setRateLimiter(RateLimiter)},
+ * or to a single service using {@link ExecutableService#setRateLimiter(RateLimiter)}.
+ * <p>
+ * The bucket state is held in a single {@link AtomicLong} (the time at which the bucket will next be full),
+ * so acquiring a permit is a single compare-and-set and never blocks the executing thread.
+ * Executions which exceed the rate are either delayed until a permit becomes available,
+ * or dropped entirely, depending on the {@link ThrottleMode} of the limiter.
+ *
+ * @author SimplexDevelopment
+ */
+public final class RateLimiter {
+    /**
+     * The value returned by {@link #acquire()} when an execution has been dropped.
+     */
+    static final long DENIED = -1L;
+    /**
+     * The amount of time (in nanoseconds) it takes for a single permit to be refilled.
+     */
+    private final long interval;
+    /**
+     * The amount of time (in nanoseconds) the bucket may run ahead of the current time, which represents the burst size.
+     */
+    private final long tolerance;
+    /**
+     * The longest amount of time (in nanoseconds) an execution may be delayed before it is dropped instead.
+     */
+    private final long maxDelay;
+    /**
+     * What to do with executions which exceed the rate.
+     */
+    private final ThrottleMode mode;
+    /**
+     * The theoretical time (in nanoseconds) at which the next permit will be available without any burst.
+     */
+    private final AtomicLong nextFree;
+    /**
+     * The number of executions which were permitted immediately.
+     */
+    private final LongAdder permitted = new LongAdder();
+    /**
+     * The number of executions which were delayed.
+     */
+    private final LongAdder delayed = new LongAdder();
+    /**
+     * The number of executions which were dropped.
+     */
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * The total amount of time (in nanoseconds) executions have been delayed for.
+     */
+    private final LongAdder delayedNanos = new LongAdder();
+
+    /**
+     * Creates a new rate limiter which drops any execution exceeding the rate.
+     *
+     * @param permitsPerSecond How many executions are allowed per second.
+     * @param burst            How many executions may pass at once before the rate is enforced.
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, ThrottleMode.DROP, Duration.ZERO);
+    }
+
+    /**
+     * Creates a new rate limiter.
+     * When the mode is {@link ThrottleMode#DELAY}, executions will be delayed for at most one second
+     * before they are dropped.
+     *
+     * @param permitsPerSecond How many executions are allowed per second.
+     * @param burst            How many executions may pass at once before the rate is enforced.
+     * @param mode             What to do with executions which exceed the rate.
+     */
+    public RateLimiter(double permitsPerSecond, int burst, @NotNull ThrottleMode mode) {
+        this(permitsPerSecond, burst, mode, Duration.ofSeconds(1L));
+    }
+
+    /**
+     * Creates a new rate limiter.
+     *
+     * @param permitsPerSecond How many executions are allowed per second.
+     * @param burst            How many executions may pass at once before the rate is enforced.
+     * @param mode             What to do with executions which exceed the rate.
+     * @param maxDelay         The longest an execution may be delayed before it is dropped instead.
+     *                         This is only used when the mode is {@link ThrottleMode#DELAY}.
+     */
+    public RateLimiter(double permitsPerSecond, int burst, @NotNull ThrottleMode mode, @NotNull Duration maxDelay) {
+        if (permitsPerSecond <= 0D) {
+            throw new IllegalArgumentException("Permits per second must be greater than 0");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1");
+        }
+
+        this.interval = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1L) / permitsPerSecond));
+        this.tolerance = interval * (burst - 1);
+        this.maxDelay = mode == ThrottleMode.DELAY ? maxDelay.toNanos() : 0L;
+        this.mode = mode;
+        this.nextFree = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Attempts to take a permit from the bucket.
+     * This never blocks; if the execution must wait, the required wait is returned instead.
+     *
+     * @return 0 if the execution may run immediately, the number of nanoseconds to wait before running
+     * if the execution has been delayed, or {@link #DENIED} if the execution has been dropped.
+     */
+    long acquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFree.get();
+            long base = Math.max(current, now);
+            long wait = Math.max(0L, base - now - tolerance);
+
+            if (wait > maxDelay) {
+                dropped.increment();
+                return DENIED;
+            }
+
+            if (nextFree.compareAndSet(current, base + interval)) {
+                if (wait == 0L) {
+                    permitted.increment();
+                } else {
+                    delayed.increment();
+                    delayedNanos.add(wait);
+                }
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit taken by {@link #acquire()} for an execution which did not run after all,
+     * such as one which was then dropped by another rate limiter.
+     *
+     * @param wait The value returned by {@link #acquire()} when the permit was taken. This must not be {@link #DENIED}.
+     */
+    void refund(long wait) {
+        nextFree.addAndGet(-interval);
+        if (wait == 0L) {
+            permitted.decrement();
+        } else {
+            delayed.decrement();
+            delayedNanos.add(-wait);
+        }
+    }
+
+    /**
+     * @return What this rate limiter does with executions which exceed the rate.
+     */
+    @Contract(pure = true)
+    public ThrottleMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return A snapshot of the throttle statistics for this rate limiter.
+     */
+    public @NotNull ThrottleStatistics getStatistics() {
+        return new ThrottleStatistics(permitted.sum(), delayed.sum(), dropped.sum(), delayedNanos.sum());
+    }
+
+    /**
+     * What a {@link RateLimiter} should do with executions which exceed the rate.
+     */
+    public enum ThrottleMode {
+        /**
+         * The execution is rescheduled to run once a permit becomes available.
+         */
+        DELAY,
+        /**
+         * The execution is skipped entirely.
+         */
+        DROP
+    }
+
+    /**
+     * A point-in-time view of the statistics of a {@link RateLimiter}.
+     *
+     * @param permitted    The number of executions which were permitted immediately.
+     * @param delayed      The number of executions which were delayed.
+     * @param dropped      The number of executions which were dropped.
+     * @param delayedNanos The total amount of time (in nanoseconds) executions have been delayed for.
+     */
+    public record ThrottleStatistics(long permitted, long delayed, long dropped, long delayedNanos) {
+        /**
+         * @return The total number of executions which have passed through the rate limiter.
+         */
+        public long total() {
+            return permitted + delayed + dropped;
+        }
+    }
+}
@@ -41,6 +41,10 @@ import java.util.concurrent.TimeUnit;
  */
 public final class ReactorBukkitScheduler
         implements Scheduler, Scheduler.Worker {
+    /**
+     * The length of a server tick, in nanoseconds.
+     */
+    private static final long TICK_NANOS = 50_000_000L;
     /**
      * The plugin instance.
      */
@@ -71,13 +75,13 @@ public final class ReactorBukkitScheduler
      *
      * @param task  The task to delegate
      * @param delay The amount of time to wait before running the task
-     * @param unit  Unused parameter in this implementation.
-     *              Regardless of what value you use, this parameter will never be called.
+     * @param unit  The unit of the delay, which is converted into ticks (rounded up).
+     *              If this is null, the delay is treated as a number of ticks.
      * @return A disposable that can be used to cancel the task.
      */
     @Override
-    public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @Deprecated @Nullable TimeUnit unit) {
-        return new BukkitDisposable(scheduler.runTaskLater(plugin, task, delay));
+    public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @Nullable TimeUnit unit) {
+        return new BukkitDisposable(scheduler.runTaskLater(plugin, task, toTicks(delay, unit)));
     }
 
     /**
@@ -87,17 +91,32 @@ public final class ReactorBukkitScheduler
      * @param task         The task to delegate.
      * @param initialDelay The amount of time to wait before running the task.
      * @param period       The amount of time to wait between each execution of the task.
-     * @param unit         Unused parameter in this implementation.
-     *                     Regardless of what value you use, this parameter will never be called.
+     * @param unit         The unit of the delay and period, which are converted into ticks (rounded up).
+     *                     If this is null, the delay and period are treated as a number of ticks.
      * @return A disposable that can be used to cancel the task.
      */
     @Override
-    public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @Deprecated @Nullable TimeUnit unit) {
+    public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @Nullable TimeUnit unit) {
         if (period <= 0L) {
             throw new IllegalArgumentException("Period must be greater than 0L");
         }
 
-        return new BukkitDisposable(scheduler.runTaskTimer(plugin, task, initialDelay, period));
+        return new BukkitDisposable(scheduler.runTaskTimer(plugin, task, toTicks(initialDelay, unit), toTicks(period, unit)));
+    }
+
+    /**
+     * Converts an amount of time into server ticks. A tick is 50 milliseconds, and partial ticks are rounded up.
+     *
+     * @param time The amount of time to convert.
+     * @param unit The unit of the time, or null if the time is already a number of ticks.
+     * @return The amount of time in ticks.
+     */
+    static long toTicks(long time, @Nullable TimeUnit unit) {
+        if (unit == null || time <= 0L) return Math.max(0L, time);
+        // Converting through nanoseconds keeps sub-millisecond waits, such as those of a delaying RateLimiter, from rounding down.
+        long nanos = unit.toNanos(time);
+        long ticks = nanos / TICK_NANOS;
+        return nanos % TICK_NANOS == 0L ? ticks : ticks + 1L;
     }
 
     /**
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Describes how a failed execution of an {@link ExecutableService} should be retried.
+ * A retry policy can be attached to a service using {@link ExecutableService#setRetryPolicy(RetryPolicy)}.
+ * <p>
+ * Each retry waits exponentially longer than the last, starting at the minimum backoff and never exceeding
+ * the maximum backoff. A random jitter is applied to each wait, so that services which fail together
+ * do not all retry at the same moment. Retries are scheduled on the scheduler of the service's pool.
+ *
+ * @param maxRetries The maximum number of times a single execution is retried.
+ * @param minBackoff How long to wait before the first retry.
+ * @param maxBackoff The longest to wait before any retry.
+ * @param jitter     The fraction (between 0 and 1) of each wait which is randomized.
+ * @author SimplexDevelopment
+ */
+public record RetryPolicy(int maxRetries, @NotNull Duration minBackoff, @NotNull Duration maxBackoff, double jitter) {
+    /**
+     * Validates the policy.
+     */
+    public RetryPolicy {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries must not be negative");
+        }
+        if (jitter < 0D || jitter > 1D) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+        if (maxBackoff.compareTo(minBackoff) < 0) {
+            throw new IllegalArgumentException("Max backoff must not be less than min backoff");
+        }
+    }
+
+    /**
+     * Creates a new retry policy with a maximum backoff of one minute and a jitter of 50%.
+     *
+     * @param maxRetries The maximum number of times a single execution is retried.
+     * @param minBackoff How long to wait before the first retry.
+     */
+    public RetryPolicy(int maxRetries, @NotNull Duration minBackoff) {
+        this(maxRetries, minBackoff, Duration.ofMinutes(1L).compareTo(minBackoff) < 0 ? minBackoff : Duration.ofMinutes(1L), 0.5D);
+    }
+
+    /**
+     * Creates the Reactor retry specification for a single execution.
+     *
+     * @param scheduler The scheduler to wait on between retries.
+     * @param filter    Which errors may be retried.
+     * @return The Reactor retry specification. When retries are exhausted, the last error is propagated as is.
+     */
+    @NotNull Retry toRetry(@NotNull Scheduler scheduler, @NotNull Predicate<Throwable> filter) {
+        return Retry.backoff(maxRetries, minBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(jitter)
+                .scheduler(scheduler)
+                .filter(filter)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+}
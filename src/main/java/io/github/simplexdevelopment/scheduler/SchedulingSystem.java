@@ -35,6 +35,12 @@ import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
 /**
  * This class is used to manage the scheduling of {@link IService}s,
  * and the creation of {@link ServicePool}s through the {@link ServiceManager}.
@@ -55,7 +61,7 @@ public final class SchedulingSystem<T extends JavaPlugin> implements ISchedule {
     /**
      * A denominator to use when registering default service pool names.
      */
-    static int denom = 0;
+    static final AtomicInteger denom = new AtomicInteger(0);
     /**
      * The service manager to use for controlling service pools.
      */
@@ -69,6 +75,22 @@ public final class SchedulingSystem<T extends JavaPlugin> implements ISchedule {
      * and as a result runs on the Main server thread.
      */
     private final ReactorBukkitScheduler mainScheduler;
+    /**
+     * The watchdog which reports stuck services, or null if it has not been started.
+     */
+    private ServiceWatchdog watchdog;
+    /**
+     * The writer which appends failures to the dead-letter log, or null if it has not been enabled.
+     */
+    private DeadLetterWriter deadLetterWriter;
+    /**
+     * The exporter which exposes the pool statistics in the Prometheus format, or null if it has not been created.
+     */
+    private PrometheusExporter metricsExporter;
+    /**
+     * The tracer recording the executions of the service pools, or null if tracing is not enabled.
+     */
+    private ExecutionTracer tracer;
 
     /**
      * Creates a new instance of the scheduling system. This is used to manage the scheduling of services.
@@ -115,6 +137,194 @@ public final class SchedulingSystem<T extends JavaPlugin> implements ISchedule {
         return service.start();
     }
 
+    /**
+     * Processes every element of a collection on the main server thread, spread across as many ticks as necessary
+     * so that no tick exceeds the given budget. The iteration starts immediately.
+     *
+     * @param source The elements to process.
+     * @param budget How much work may be done each tick.
+     * @param action The action to perform on each element.
+     * @param <E>    The type of element.
+     * @return The running iteration, which reports its progress and can be cancelled.
+     */
+    public <E> @NotNull SlicedIteration<E> startIteration(@NotNull Spliterator<E> source,
+                                                         @NotNull SlicedIteration.Budget budget,
+                                                         @NotNull Consumer<? super E> action) {
+        return new SlicedIteration<>(source, budget, action).start(mainScheduler);
+    }
+
+    /**
+     * Processes every element of a collection on the main server thread, spread across as many ticks as necessary
+     * so that no tick exceeds the given budget. The iteration starts when the returned Mono is subscribed,
+     * and is cancelled if the subscription is disposed before it completes.
+     *
+     * @param source The elements to process.
+     * @param budget How much work may be done each tick.
+     * @param action The action to perform on each element.
+     * @param <E>    The type of element.
+     * @return A Mono object which emits the final progress of the iteration once every element has been processed.
+     * @see #startIteration(Spliterator, SlicedIteration.Budget, Consumer)
+     */
+    public <E> @NotNull Mono<SlicedIteration.Progress> iterate(@NotNull Iterable<E> source,
+                                                               @NotNull SlicedIteration.Budget budget,
+                                                               @NotNull Consumer<? super E> action) {
+        return Mono.defer(() -> {
+            SlicedIteration<E> iteration = startIteration(source.spliterator(), budget, action);
+            return iteration.completion().doOnCancel(iteration::cancel);
+        });
+    }
+
+    /**
+     * Starts a {@link ServiceWatchdog} which reports any service of this plugin that executes for longer
+     * than the budget of its pool. The watchdog is started when the returned Mono is subscribed to;
+     * if the watchdog is already running, the running watchdog is returned.
+     *
+     * @param defaultBudget The budget used for pools which do not define their own execution budget.
+     * @param checkInterval How often the watchdog inspects the executing services.
+     * @return A Mono object containing the running watchdog.
+     */
+    public @NotNull Mono<ServiceWatchdog> startWatchdog(@NotNull Duration defaultBudget, @NotNull Duration checkInterval) {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                if (watchdog == null) {
+                    watchdog = new ServiceWatchdog(plugin, defaultBudget, checkInterval);
+                    watchdog.start();
+                }
+                return watchdog;
+            }
+        });
+    }
+
+    /**
+     * Stops the {@link ServiceWatchdog}, if it is running. This should be called in {@link JavaPlugin#onDisable()}.
+     *
+     * @return A Mono object which can be used to stop the watchdog.
+     */
+    public @NotNull Mono<Void> stopWatchdog() {
+        return Mono.fromRunnable(() -> {
+            synchronized (this) {
+                if (watchdog != null) {
+                    watchdog.shutdown();
+                    watchdog = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the failures of every service belonging to this plugin. A failure is published once an execution
+     * has failed and all of its retries (if any) have failed. Publishing a failure never blocks the failing thread;
+     * subscribers which perform slow work should move it onto another scheduler with {@link Flux#publishOn}.
+     *
+     * @return A hot Flux object which emits every failure published after subscription.
+     */
+    public @NotNull Flux<ExecutionFailure> getFailures() {
+        return FailureChannel.asFlux()
+                .filter(failure -> failure.service().getPlugin() == null || failure.service().getPlugin() == plugin);
+    }
+
+    /**
+     * Starts appending the failures of this plugin's services to a rotating log in the plugin's data folder,
+     * named {@code dead-letters.log}. The log is enabled when the returned Mono is subscribed to;
+     * if the log is already enabled, the running writer is returned.
+     *
+     * @param maxFileSize The size (in bytes) at which the current file is rotated.
+     * @param maxFiles    How many rotated files are kept.
+     * @return A Mono object containing the running writer.
+     */
+    public @NotNull Mono<DeadLetterWriter> enableDeadLetterLog(long maxFileSize, int maxFiles) {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                if (deadLetterWriter == null) {
+                    deadLetterWriter = new DeadLetterWriter(getFailures(),
+                            plugin.getDataFolder().toPath(),
+                            "dead-letters",
+                            maxFileSize,
+                            maxFiles);
+                }
+                return deadLetterWriter;
+            }
+        });
+    }
+
+    /**
+     * Stops appending failures to the dead-letter log, if it is enabled. This should be called in {@link JavaPlugin#onDisable()}.
+     *
+     * @return A Mono object which can be used to stop the writer.
+     */
+    public @NotNull Mono<Void> disableDeadLetterLog() {
+        return Mono.fromRunnable(() -> {
+            synchronized (this) {
+                if (deadLetterWriter != null) {
+                    deadLetterWriter.dispose();
+                    deadLetterWriter = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts tracing every execution in the service pools of this scheduling system.
+     * The trace is written to a new file in the {@code traces} folder of the plugin's data folder,
+     * in the Chrome Trace Event format. Tracing starts when the returned Mono is subscribed to;
+     * if tracing is already enabled, the running tracer is returned.
+     *
+     * @return A Mono object containing the running tracer, or an error if the trace file could not be created.
+     * @see ExecutionTracer
+     */
+    public @NotNull Mono<ExecutionTracer> enableTracing() {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                if (tracer == null) {
+                    Path file = plugin.getDataFolder().toPath()
+                            .resolve("traces")
+                            .resolve("trace-" + System.currentTimeMillis() + ".json");
+                    tracer = new ExecutionTracer(file);
+                    serviceManager.setTracer(tracer);
+                }
+                return tracer;
+            }
+        });
+    }
+
+    /**
+     * Stops tracing the service pools of this scheduling system, if tracing is enabled, and completes the trace file.
+     * This should be called in {@link JavaPlugin#onDisable()}.
+     *
+     * @return A Mono object which can be used to stop the tracer.
+     */
+    public @NotNull Mono<Void> disableTracing() {
+        return Mono.fromRunnable(() -> {
+            synchronized (this) {
+                if (tracer != null) {
+                    serviceManager.setTracer(null);
+                    tracer.dispose();
+                    tracer = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the Prometheus exporter for the service pools of this scheduling system, creating it if necessary.
+     * The exporter does nothing until {@link PrometheusExporter#startHttp(int)} or
+     * {@link PrometheusExporter#startFileDump(java.nio.file.Path, Duration)} is called,
+     * and should be disposed in {@link JavaPlugin#onDisable()}. Like the other features of this scheduling system,
+     * the exporter is only created when the returned Mono is subscribed to.
+     *
+     * @return A Mono object containing the exporter.
+     */
+    public @NotNull Mono<PrometheusExporter> getMetricsExporter() {
+        return Mono.fromCallable(() -> {
+            synchronized (this) {
+                if (metricsExporter == null || metricsExporter.isDisposed()) {
+                    metricsExporter = new PrometheusExporter(serviceManager);
+                }
+                return metricsExporter;
+            }
+        });
+    }
+
     /**
      * @return A Mono object containing your plugin, for non-blocking communication.
      */
@@ -25,16 +25,26 @@
 package io.github.simplexdevelopment.scheduler;
 
 import io.github.simplexdevelopment.api.IService;
+import io.github.simplexdevelopment.api.IdentifierRegistry;
+import io.github.simplexdevelopment.api.ServicePoolException;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * The ServiceManager is a factory class for managing {@link ServicePool}s.
@@ -46,10 +56,30 @@ import java.util.Set;
  * @author SimplexDevelopment
  */
 public final class ServiceManager {
+    /**
+     * Every service manager which has not been garbage collected yet, used by {@link PoolsCommand}.
+     */
+    private static final Set<ServiceManager> INSTANCES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
     /**
      * A set of {@link ServicePool}s which are currently active.
      */
     private final Set<ServicePool> servicePools;
+    /**
+     * An index of the active {@link ServicePool}s, keyed by their numerical id.
+     */
+    private final IdentifierRegistry<ServicePool> poolRegistry;
+    /**
+     * The tracer attached to every pool created by this service manager, or null if tracing is not enabled.
+     */
+    private volatile ExecutionTracer tracer;
+    /**
+     * How long a pool may stay idle before it is reclaimed, or null if idle pools are never reclaimed.
+     */
+    private Duration idleTimeout;
+    /**
+     * The periodic task which reclaims idle pools, or null if idle pools are never reclaimed.
+     */
+    private Disposable reaper;
 
     /**
      * Creates a new instance of the Service Manager class.
@@ -59,7 +89,101 @@ public final class ServiceManager {
      * {@link IService}s from the {ServicePool} parameter.
      */
     public ServiceManager() {
-        servicePools = new HashSet<>();
+        servicePools = ConcurrentHashMap.newKeySet();
+        poolRegistry = new IdentifierRegistry<>();
+        INSTANCES.add(this);
+    }
+
+    /**
+     * @return Every service manager created with this copy of the library which is still in use.
+     */
+    static @NotNull List<ServiceManager> instances() {
+        synchronized (INSTANCES) {
+            return List.copyOf(INSTANCES);
+        }
+    }
+
+    /**
+     * Adds a newly created pool to the pools managed by this service manager.
+     *
+     * @param pool The pool to add.
+     */
+    private void register(@NotNull ServicePool pool) {
+        pool.setTracer(tracer);
+        pool.setOwner(this);
+        servicePools.add(pool);
+        poolRegistry.register(pool);
+    }
+
+    /**
+     * Registers a pool which was reclaimed again, as it is being used.
+     *
+     * @param pool The pool which is being revived.
+     */
+    void revive(@NotNull ServicePool pool) {
+        register(pool);
+    }
+
+    /**
+     * Removes a pool which has been reclaimed. The pool keeps a reference to this service manager,
+     * so that it can register itself again through {@link #revive(ServicePool)}.
+     *
+     * @param pool The pool which has been reclaimed.
+     */
+    void deregister(@NotNull ServicePool pool) {
+        servicePools.remove(pool);
+        poolRegistry.unregister(pool);
+    }
+
+    /**
+     * Sets how long a pool may have no live services before it is reclaimed. A reclaimed pool releases its scheduler,
+     * and is removed from this service manager; as soon as a service is queued on it again, it is revived
+     * with a new scheduler and registered again. Reclaiming is disabled by default.
+     *
+     * @param idleTimeout How long a pool may stay idle, or null to never reclaim idle pools.
+     */
+    public synchronized void setIdleTimeout(@Nullable Duration idleTimeout) {
+        if (reaper != null) {
+            reaper.dispose();
+            reaper = null;
+        }
+
+        this.idleTimeout = idleTimeout;
+        if (idleTimeout == null) return;
+
+        long interval = Math.max(1000L, Math.min(60_000L, idleTimeout.toMillis() / 4L));
+        reaper = Schedulers.parallel().schedulePeriodically(this::reclaimIdlePools, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return How long a pool may stay idle before it is reclaimed, or null if idle pools are never reclaimed.
+     */
+    public synchronized @Nullable Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Reclaims every pool which has been idle for longer than the idle timeout.
+     */
+    private void reclaimIdlePools() {
+        Duration timeout = getIdleTimeout();
+        if (timeout == null) return;
+
+        for (ServicePool pool : servicePools) {
+            if (pool.getIdleTime().compareTo(timeout) >= 0) {
+                pool.reclaim();
+            }
+        }
+    }
+
+    /**
+     * Attaches a tracer to every pool managed by this service manager, and to every pool it creates from now on.
+     *
+     * @param tracer The tracer to attach, or null to stop tracing.
+     */
+    void setTracer(@Nullable ExecutionTracer tracer) {
+        this.tracer = tracer;
+        servicePools.forEach(pool -> pool.setTracer(tracer));
     }
 
     /**
@@ -71,8 +195,8 @@ public final class ServiceManager {
     @Contract(pure = true, value = "_, _ -> new")
     public @NotNull Mono<ServicePool> createServicePool(String poolName, IService... services) {
         ServicePool pool = new ServicePool(poolName, false);
-        Flux.fromIterable(Arrays.asList(services)).doOnEach(s -> pool.addService(s.get()));
-        servicePools.add(pool);
+        pool.addServices(Arrays.asList(services));
+        register(pool);
         return Mono.just(pool);
     }
 
@@ -85,7 +209,7 @@ public final class ServiceManager {
     @Contract(pure = true, value = "_, _ -> new")
     public @NotNull Mono<ServicePool> emptyBukkitServicePool(String poolName, JavaPlugin plugin) {
         ServicePool pool = new ServicePool(poolName, plugin);
-        servicePools.add(pool);
+        register(pool);
         return Mono.just(pool);
 
     }
@@ -100,8 +224,24 @@ public final class ServiceManager {
     @Contract(pure = true, value = "_, _, _ -> new")
     public @NotNull Mono<ServicePool> bukkitServicePool(String poolName, JavaPlugin plugin, IService... services) {
         ServicePool pool = new ServicePool(poolName, plugin);
-        Flux.fromIterable(Arrays.asList(services)).doOnEach(s -> pool.addService(s.get()));
-        servicePools.add(pool);
+        pool.addServices(Arrays.asList(services));
+        register(pool);
+        return Mono.just(pool);
+    }
+
+    /**
+     * @param poolName The name of the service pool.
+     * @param plugin   The plugin which the work of the service pool is accounted to.
+     * @param services The services to register within the service pool.
+     * @return A {@link Mono} object which contains a {@link ServicePool} element.
+     * This service pool will execute each service on the threads shared by every plugin,
+     * as provided by the {@link SharedExecutorRegistry}.
+     */
+    @Contract(pure = true, value = "_, _, _ -> new")
+    public @NotNull Mono<ServicePool> sharedServicePool(String poolName, JavaPlugin plugin, IService... services) {
+        ServicePool pool = new ServicePool(poolName, SharedExecutorRegistry.forPlugin(plugin));
+        pool.addServices(Arrays.asList(services));
+        register(pool);
         return Mono.just(pool);
     }
 
@@ -114,7 +254,42 @@ public final class ServiceManager {
     @Contract(pure = true, value = "_, _ -> new")
     public @NotNull Mono<ServicePool> multithreadedServicePool(String name, IService... services) {
         ServicePool pool = new ServicePool(name, true);
-        Flux.fromIterable(Arrays.asList(services)).doOnEach(s -> pool.addService(s.get()));
+        pool.addServices(Arrays.asList(services));
+        pool.setTracer(tracer);
+        return Mono.just(pool);
+    }
+
+    /**
+     * @param poolName   The name of the service pool.
+     * @param plugin     The plugin which will be used to register the service pool.
+     * @param tickBudget How long the service pool may run services each tick.
+     * @param services   The services to register within the service pool.
+     * @return A {@link Mono} object which contains a {@link ServicePool} element.
+     * This Service Pool will execute each service within the main server thread,
+     * running the services with the earliest deadlines first, as provided by a {@link DeadlineScheduler}.
+     */
+    @Contract(pure = true, value = "_, _, _, _ -> new")
+    public @NotNull Mono<ServicePool> deadlineServicePool(String poolName, JavaPlugin plugin, Duration tickBudget, IService... services) {
+        ServicePool pool = new ServicePool(poolName, () -> new DeadlineScheduler(new ReactorBukkitScheduler(plugin), tickBudget));
+        pool.addServices(Arrays.asList(services));
+        register(pool);
+        return Mono.just(pool);
+    }
+
+    /**
+     * @param name       The name of the service pool.
+     * @param minThreads The smallest number of threads the service pool will keep.
+     * @param maxThreads The largest number of threads the service pool will use.
+     * @param services   The services to register within the service pool.
+     * @return A {@link Mono} object which contains a {@link ServicePool} element.
+     * This service pool will execute each service across a set of threads which grows and shrinks with the load,
+     * as provided by an {@link AdaptiveScheduler}.
+     */
+    @Contract(pure = true, value = "_, _, _, _ -> new")
+    public @NotNull Mono<ServicePool> adaptiveServicePool(String name, int minThreads, int maxThreads, IService... services) {
+        ServicePool pool = new ServicePool(name, () -> new AdaptiveScheduler(name, minThreads, maxThreads));
+        pool.addServices(Arrays.asList(services));
+        register(pool);
         return Mono.just(pool);
     }
 
@@ -129,28 +304,68 @@ public final class ServiceManager {
     @Contract(pure = true, value = "_, _ -> new")
     public @NotNull Mono<ServicePool> emptyServicePool(String poolName, boolean multithreaded) {
         ServicePool pool = new ServicePool(poolName, multithreaded);
+        pool.setTracer(tracer);
         return Mono.just(pool);
     }
 
     /**
      * Adds a service to an existing service pool.
      *
-     * @param pool     The service pool to add to.
+     * @param poolName The name of the service pool to add to.
      * @param services The services to register within the service pool.
-     * @return A {@link Mono} object which contains the {@link ServicePool} element that now contains the registered services.
+     * @return A {@link Mono} object which contains the {@link ServicePool} element that now contains the registered services,
+     * or which signals a {@link ServicePoolException} if there is no pool registered with that name.
      */
     @Contract("_, _ -> new")
     public @NotNull Mono<ServicePool> addToExistingPool(@NotNull String poolName, IService... services) {
-        return Mono.create(sink -> {
-            final ServicePool[] servicePool = new ServicePool[1];
-            findPool(poolName).subscribe(pool -> {
-                if (pool == null) throw new ServicePoolException("There is no pool currently registered with that name.");
-                servicePool[0] = pool;
-            });
-            List<IService> serviceList = Arrays.asList(services);
-            Flux.fromIterable(serviceList).doOnEach(s -> servicePool[0].addService(s.get()));
-            sink.success(servicePool[0]);
-        });
+        return findPool(poolName)
+                .switchIfEmpty(Mono.error(() -> new ServicePoolException("There is no pool currently registered with that name.")))
+                .map(pool -> {
+                    pool.addServices(Arrays.asList(services));
+                    return pool;
+                });
+    }
+
+    /**
+     * Registers a stream of services with an existing service pool, in batches. The services of each batch are
+     * added to the pool at once, so the index of the pool is only rebuilt once per batch rather than once per service,
+     * which keeps registering thousands of services (for example, services generated from configuration files) cheap.
+     * Nothing is registered until the returned {@link Flux} is subscribed to.
+     *
+     * @param pool      The service pool to register the services with.
+     * @param services  The services to register.
+     * @param batchSize The largest number of services registered at once.
+     * @param queue     Whether each service should also be queued as soon as it is registered.
+     * @return A {@link Flux} object which emits the statistics of each batch, once it has been registered.
+     */
+    @Contract("_, _, _, _ -> new")
+    public @NotNull Flux<RegistrationBatch> registerServices(@NotNull ServicePool pool,
+                                                              @NotNull Flux<? extends IService> services,
+                                                              int batchSize,
+                                                              boolean queue) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1.");
+        }
+
+        return services.buffer(batchSize)
+                .index()
+                .map(batch -> {
+                    long start = System.nanoTime();
+                    List<? extends IService> registered = batch.getT2();
+                    pool.addServices(registered);
+                    int queued = 0;
+                    if (queue) {
+                        for (IService service : registered) {
+                            pool.enqueue(service);
+                            queued++;
+                        }
+                    }
+                    return new RegistrationBatch(batch.getT1(),
+                            registered.size(),
+                            queued,
+                            pool.getAssociatedServices().size(),
+                            Duration.ofNanos(System.nanoTime() - start));
+                });
     }
 
     /**
@@ -164,6 +379,18 @@ public final class ServiceManager {
         return getServicePools().filter(pool -> pool.getName().equalsIgnoreCase(poolName)).next();
     }
 
+    /**
+     * Finds a {@link ServicePool} by its numerical id, as returned by {@link ServicePool#getNumericalId()}.
+     * Unlike {@link #findPool(String)}, this lookup does not allocate and does not block,
+     * which makes it suitable for use on hot paths.
+     *
+     * @param numericalId The numerical id of the pool.
+     * @return The pool with the given numerical id, or null if no such pool is registered.
+     */
+    public @Nullable ServicePool getServicePool(int numericalId) {
+        return poolRegistry.get(numericalId);
+    }
+
     /**
      * @param pool     The service pool to take from.
      * @param services The services to remove from the pool.
@@ -171,9 +398,7 @@ public final class ServiceManager {
      */
     @Contract("_, _ -> new")
     public @NotNull Mono<ServicePool> takeFromExistingPool(@NotNull ServicePool pool, IService... services) {
-        Flux.fromIterable(Arrays.asList(services)).doOnEach(s -> {
-            pool.removeService(s.get());
-        });
+        Arrays.asList(services).forEach(pool::removeService);
         return Mono.just(pool);
     }
 
@@ -185,6 +410,26 @@ public final class ServiceManager {
         return Flux.fromIterable(servicePools);
     }
 
+    /**
+     * Performs an action for every service pool managed by this service manager, without creating a {@link Flux}.
+     *
+     * @param action The action to perform.
+     */
+    void forEachPool(@NotNull Consumer<ServicePool> action) {
+        servicePools.forEach(action);
+    }
+
+    /**
+     * Captures an immutable snapshot of every service pool managed by this service manager,
+     * including the state and recent latency of each service. Collecting the snapshot never locks
+     * the execution path, so it is safe to call while the server is lagging.
+     *
+     * @return A {@link Mono} object which contains a snapshot of every service pool.
+     */
+    public @NotNull Mono<List<PoolSnapshot>> snapshot() {
+        return getServicePools().map(ServicePool::snapshot).collectList();
+    }
+
     /**
      * @param service The service to locate.
      * @return True if the service is somewhere within a service pool, false otherwise.
@@ -206,4 +451,16 @@ public final class ServiceManager {
                 .filter(p -> p.getAssociatedServices().contains(service))
                 .next();
     }
+
+    /**
+     * The statistics of a single batch registered by {@link #registerServices(ServicePool, Flux, int, boolean)}.
+     *
+     * @param index      The position of the batch in the stream, starting at 0.
+     * @param registered The number of services registered in the batch.
+     * @param queued     The number of services queued in the batch.
+     * @param poolSize   The number of services in the pool after the batch was registered.
+     * @param elapsed    How long it took to register and queue the batch.
+     */
+    public record RegistrationBatch(long index, int registered, int queued, int poolSize, @NotNull Duration elapsed) {
+    }
 }
@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The execution statistics of a single service within a single {@link ServicePool}.
+ * <p>
+ * Statistics are written by the threads executing the service, and can be read from any thread without locking.
+ * Latencies measure how long the service held the executing thread for, which is the time that counts
+ * against the server tick when the service runs on the main server thread.
+ *
+ * @author SimplexDevelopment
+ */
+public final class ServiceMetrics {
+    /**
+     * The weight (as a power of two) given to previous latencies when updating the average latency.
+     */
+    private static final int AVERAGE_WEIGHT = 3;
+    /**
+     * The upper bounds (in nanoseconds) of the latency histogram buckets.
+     * Latencies above the last bound fall into an overflow bucket.
+     */
+    static final long[] LATENCY_BUCKETS = {
+            100_000L, 500_000L, 1_000_000L, 5_000_000L, 10_000_000L, 25_000_000L,
+            50_000_000L, 100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L
+    };
+    /**
+     * The number of completed executions.
+     */
+    private final LongAdder executions = new LongAdder();
+    /**
+     * The number of failed executions.
+     */
+    private final LongAdder failures = new LongAdder();
+    /**
+     * The number of executions currently holding a thread.
+     */
+    private final AtomicInteger running = new AtomicInteger(0);
+    /**
+     * When the service is next expected to fire, in milliseconds since the epoch, or 0 if it is not scheduled.
+     */
+    private volatile long nextFireMillis;
+    /**
+     * How long (in nanoseconds) the most recent execution held the executing thread for.
+     */
+    private volatile long lastLatency;
+    /**
+     * An exponentially weighted moving average of the latency (in nanoseconds) of recent executions.
+     */
+    private volatile long averageLatency;
+    /**
+     * The number of executions which fell into each latency bucket, with the overflow bucket last.
+     */
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS.length + 1);
+    /**
+     * The total latency (in nanoseconds) of every completed execution.
+     */
+    private final LongAdder totalLatency = new LongAdder();
+
+    /**
+     * Records the start of an execution.
+     *
+     * @return The time the execution started, measured by {@link System#nanoTime()}.
+     */
+    long recordStart() {
+        running.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the end of an execution.
+     *
+     * @param startNanos The time the execution started, as returned by {@link #recordStart()}.
+     */
+    void recordEnd(long startNanos) {
+        long latency = System.nanoTime() - startNanos;
+        running.decrementAndGet();
+        executions.increment();
+        totalLatency.add(latency);
+        latencyHistogram.incrementAndGet(bucketOf(latency));
+
+        // Benign race: concurrent executions may each overwrite the average, which only loses a sample.
+        long average = averageLatency;
+        averageLatency = average == 0L ? latency : average + ((latency - average) >> AVERAGE_WEIGHT);
+        lastLatency = latency;
+    }
+
+    /**
+     * @param latency A latency in nanoseconds.
+     * @return The index of the histogram bucket the latency falls into.
+     */
+    private static int bucketOf(long latency) {
+        for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+            if (latency <= LATENCY_BUCKETS[i]) return i;
+        }
+        return LATENCY_BUCKETS.length;
+    }
+
+    /**
+     * Records a failed execution.
+     */
+    void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * @param nextFireMillis When the service is next expected to fire, in milliseconds since the epoch,
+     *                       or 0 if it is not scheduled.
+     */
+    void setNextFire(long nextFireMillis) {
+        this.nextFireMillis = nextFireMillis;
+    }
+
+    /**
+     * @return The number of completed executions.
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * @return The number of failed executions.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return The number of executions currently holding a thread.
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return When the service is next expected to fire, in milliseconds since the epoch, or 0 if it is not scheduled.
+     */
+    @Contract(pure = true)
+    public long getNextFireMillis() {
+        return nextFireMillis;
+    }
+
+    /**
+     * @return How long (in nanoseconds) the most recent execution held the executing thread for.
+     */
+    @Contract(pure = true)
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * @return An exponentially weighted moving average of the latency (in nanoseconds) of recent executions.
+     */
+    @Contract(pure = true)
+    public long getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * @return The total latency (in nanoseconds) of every completed execution.
+     */
+    public long getTotalLatency() {
+        return totalLatency.sum();
+    }
+
+    /**
+     * @param bucket The index of the bucket, where {@link #LATENCY_BUCKETS}{@code .length} is the overflow bucket.
+     * @return The number of executions which fell into the bucket.
+     */
+    long getLatencyBucketCount(int bucket) {
+        return latencyHistogram.get(bucket);
+    }
+}
@@ -26,20 +26,44 @@ package io.github.simplexdevelopment.scheduler;
 
 import io.github.simplexdevelopment.api.IService;
 import io.github.simplexdevelopment.api.Identifier;
+import io.github.simplexdevelopment.api.IdentifierRegistry;
+import io.github.simplexdevelopment.api.ServicePoolException;
+import io.github.simplexdevelopment.api.SyncService;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.Scannable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 
 /**
  * A service pool is a collection of services which are managed by a single scheduler.
@@ -61,13 +85,96 @@ public final class ServicePool implements Identifier {
      */
     private final Set<IService> associatedServices;
     /**
-     * The scheduler used to run the services in this pool.
+     * An index of the services registered through {@link #addService(IService)}, keyed by their numerical id.
      */
-    private final Scheduler scheduler;
+    private final IdentifierRegistry<IService> serviceRegistry;
+    /**
+     * Creates the scheduler used to run the services in this pool, the first time it is needed.
+     */
+    private final Supplier<Scheduler> schedulerFactory;
+    /**
+     * The scheduler used to run the services in this pool, or null until it is first needed.
+     */
+    private volatile Scheduler scheduler;
     /**
      * The name used to identify this service pool.
      */
     private final String name;
+    /**
+     * The unique identifier of this service pool, computed once from the name.
+     */
+    private final UUID uniqueId;
+    /**
+     * The numerical identifier of this service pool, computed once from the unique identifier.
+     */
+    private final int numericalId;
+    /**
+     * The rate limiter applied to every service in this pool, or null if the pool is not rate limited.
+     */
+    private volatile RateLimiter rateLimiter;
+    /**
+     * How long a single execution in this pool may run before it is reported by a {@link ServiceWatchdog},
+     * or null to use the default budget of the watchdog.
+     */
+    private volatile Duration executionBudget;
+    /**
+     * The tracer recording the executions of this pool, or null if the pool is not traced.
+     */
+    private volatile ExecutionTracer tracer;
+    /**
+     * The timers of the services queued in this pool. Each timer is held in a {@link Disposable.Swap},
+     * so that it can be replaced by {@link #reschedule(IService, long, long, boolean)}
+     * without invalidating the {@link Disposable} returned by {@link #queueService(IService)}.
+     */
+    private final Map<IService, TimerHandle> timers = new ConcurrentHashMap<>();
+    /**
+     * The number of live timers and in-flight tasks in this pool. The pool can only be reclaimed while this is 0.
+     */
+    private final AtomicInteger references = new AtomicInteger(0);
+    /**
+     * When this pool last became idle, measured by {@link System#nanoTime()}.
+     */
+    private volatile long idleSince = System.nanoTime();
+    /**
+     * Whether the scheduler is disposed when this pool is reclaimed or recycled.
+     */
+    private final boolean ownsScheduler;
+    /**
+     * The service manager which this pool is registered with, or null if it is not registered.
+     */
+    private volatile ServiceManager owner;
+    /**
+     * Whether this pool has been reclaimed, and has to be revived before it is used again.
+     */
+    private volatile boolean reclaimed = false;
+    /**
+     * Whether dispatching is currently suspended for this pool.
+     */
+    private volatile boolean paused = false;
+    /**
+     * What happens to firings which occur while this pool is paused.
+     */
+    private volatile MissedFiringPolicy missedFiringPolicy = MissedFiringPolicy.DROP;
+    /**
+     * The services which missed a firing while this pool was paused, and will be executed once on resume.
+     */
+    private final Set<IService> missedFirings = ConcurrentHashMap.newKeySet();
+    /**
+     * The number of firings which were skipped because this pool was paused.
+     */
+    private final LongAdder skippedFirings = new LongAdder();
+    /**
+     * The execution statistics of the services executed by this pool.
+     */
+    private final Map<IService, ServiceMetrics> metrics = new ConcurrentHashMap<>();
+    /**
+     * The timers shared by periodic services with the same period and phase, keyed by period.
+     */
+    private final Map<Long, Set<FusedTimer>> fusedTimers = new ConcurrentHashMap<>();
+    /**
+     * Whether periodic services with the same period and phase share a single timer.
+     */
+    private volatile boolean fusionEnabled = true;
 
     /**
      * This will create a new instance of a Service Pool with a {@link Scheduler} as its main scheduler.
@@ -78,11 +185,15 @@ public final class ServicePool implements Identifier {
      */
     public ServicePool(String name, boolean multithreaded) {
         this.name = name;
-        this.associatedServices = new HashSet<>();
+        this.uniqueId = Identifier.super.getUniqueId();
+        this.numericalId = uniqueId.hashCode();
+        this.associatedServices = ConcurrentHashMap.newKeySet();
+        this.serviceRegistry = new IdentifierRegistry<>();
+        this.ownsScheduler = false;
         if (multithreaded) {
-            this.scheduler = Schedulers.boundedElastic();
+            this.schedulerFactory = Schedulers::boundedElastic;
         } else {
-            this.scheduler = Schedulers.single();
+            this.schedulerFactory = Schedulers::single;
         }
     }
 
@@ -94,8 +205,49 @@ public final class ServicePool implements Identifier {
      */
     public ServicePool(String name, JavaPlugin plugin) {
         this.name = name;
-        this.associatedServices = new HashSet<>();
-        this.scheduler = new ReactorBukkitScheduler(plugin);
+        this.uniqueId = Identifier.super.getUniqueId();
+        this.numericalId = uniqueId.hashCode();
+        this.associatedServices = ConcurrentHashMap.newKeySet();
+        this.serviceRegistry = new IdentifierRegistry<>();
+        this.ownsScheduler = false;
+        this.schedulerFactory = () -> new ReactorBukkitScheduler(plugin);
+    }
+
+    /**
+     * This will create a new instance of a Service Pool which runs on the given {@link Scheduler}.
+     * This can be used with a scheduler driven by virtual ticks to simulate scheduling without a running server.
+     *
+     * @param name      The name of this service pool.
+     * @param scheduler The scheduler which will host the threads for this service pool.
+     */
+    public ServicePool(String name, @NotNull Scheduler scheduler) {
+        this.name = name;
+        this.uniqueId = Identifier.super.getUniqueId();
+        this.numericalId = uniqueId.hashCode();
+        this.associatedServices = ConcurrentHashMap.newKeySet();
+        this.serviceRegistry = new IdentifierRegistry<>();
+        this.ownsScheduler = false;
+        this.schedulerFactory = () -> scheduler;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * This will create a new instance of a Service Pool whose scheduler is only created when the pool is first used,
+     * so that pools which never run any services do not hold any threads.
+     * The pool owns the schedulers created by the factory: they are disposed when the pool is reclaimed or recycled,
+     * and a new one is created if the pool is used again. The factory must therefore never return a shared scheduler.
+     *
+     * @param name             The name of this service pool.
+     * @param schedulerFactory Creates the scheduler which will host the threads for this service pool.
+     */
+    public ServicePool(String name, @NotNull Supplier<Scheduler> schedulerFactory) {
+        this.name = name;
+        this.uniqueId = Identifier.super.getUniqueId();
+        this.numericalId = uniqueId.hashCode();
+        this.associatedServices = ConcurrentHashMap.newKeySet();
+        this.serviceRegistry = new IdentifierRegistry<>();
+        this.ownsScheduler = true;
+        this.schedulerFactory = schedulerFactory;
     }
 
     /**
@@ -103,6 +255,19 @@ public final class ServicePool implements Identifier {
      */
     void addService(IService service) {
         getAssociatedServices().add(service);
+        serviceRegistry.register(service);
+    }
+
+    /**
+     * Adds a batch of services to the pool's service collection, updating the service index once for the whole batch.
+     * This pool becomes the parent pool of every service in the batch.
+     *
+     * @param services The services to add.
+     */
+    void addServices(@NotNull Collection<? extends IService> services) {
+        getAssociatedServices().addAll(services);
+        serviceRegistry.registerAll(services);
+        services.forEach(service -> service.setParentPool(this).subscribe());
     }
 
     /**
@@ -136,20 +301,451 @@ public final class ServicePool implements Identifier {
      * @return A {@link Mono} object which contains a {@link Disposable} element which can be used to destroy the registered service.
      */
     public @NotNull Mono<Disposable> queueService(IService service) {
-        return Mono.just(service).map(s -> {
-            if (s.isPeriodic()) {
-                return scheduler.schedulePeriodically(s,
-                        s.getDelay() * 50,
-                        s.getPeriod() * 50,
-                        TimeUnit.MILLISECONDS);
-            } else {
-                return scheduler.schedule(s,
-                        s.getDelay() * 50,
-                        TimeUnit.MILLISECONDS);
+        return Mono.just(service).map(this::enqueue);
+    }
+
+    /**
+     * Schedules a service immediately, replacing its current timer if it is already queued.
+     *
+     * @param service The service to queue.
+     * @return A {@link Disposable} which can be used to cancel the service.
+     * @see #queueService(IService)
+     */
+    @NotNull Disposable enqueue(@NotNull IService service) {
+        synchronized (service) {
+            // An already queued service keeps its handle, so the previous timer is disposed by the swap
+            // and the handle keeps holding the single reference of the service.
+            TimerHandle handle = timers.get(service);
+            if (handle == null) {
+                handle = acquire(service);
+                timers.put(service, handle);
+            }
+            handle.update(schedule(service));
+            return handle;
+        }
+    }
+
+    /**
+     * Changes the delay, period and mode of a queued service, without re-creating the service or its pool entry.
+     * The current timer of the service is atomically replaced with a new timer, so the {@link Disposable}
+     * previously returned by {@link #queueService(IService)} will cancel the new timer.
+     * The service keeps its identity, statistics, rate limiter and circuit breaker.
+     * If the service has not been queued, it is queued with the new timings.
+     *
+     * @param service   The service to reschedule. This must be an {@link ExecutableService} registered with this pool.
+     * @param delay     How long (in ticks) the service should wait before executing the first time.
+     * @param period    How long (in ticks) the service should wait between executions.
+     * @param repeating If the service should be scheduled for repeated executions or not.
+     * @return A {@link Mono} object which contains the {@link Disposable} which can be used to cancel the service.
+     */
+    public @NotNull Mono<Disposable> reschedule(@NotNull IService service, long delay, long period, boolean repeating) {
+        return Mono.fromSupplier(() -> {
+            if (!(service instanceof ExecutableService executable) || !isValidService(service)) {
+                throw new ServicePoolException("The service " + service.getName()
+                        + " is not an executable service registered with the pool " + getName() + ".");
+            }
+
+            synchronized (executable) {
+                executable.setTimings(delay, period, repeating);
+                TimerHandle handle = timers.get(service);
+                if (handle == null) {
+                    handle = acquire(service);
+                    timers.put(service, handle);
+                }
+                handle.update(schedule(service));
+                return handle;
             }
         });
     }
 
+    /**
+     * Creates a new timer for a service on this pool's scheduler, based on the current timings of the service.
+     *
+     * @param service The service to schedule.
+     * @return The timer, which can be disposed to stop the service from executing.
+     */
+    private Disposable schedule(IService service) {
+        getMetrics(service).setNextFire(System.currentTimeMillis() + service.getDelay() * 50);
+        Scheduler current = getScheduler();
+        if (current instanceof DeadlineScheduler edf
+                && service instanceof ExecutableService executable
+                && executable.getDeadline() != null) {
+            return edf.schedulePeriodically(() -> dispatch(service),
+                    service.getDelay(),
+                    service.isPeriodic() ? service.getPeriod() : 0L,
+                    executable.getDeadline());
+        }
+        if (service.isPeriodic() && fusionEnabled && !(current instanceof DeadlineScheduler)) {
+            return fuse(service, current);
+        }
+        if (service.isPeriodic()) {
+            return getScheduler().schedulePeriodically(() -> dispatch(service),
+                    service.getDelay() * 50,
+                    service.getPeriod() * 50,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            return getScheduler().schedule(() -> dispatch(service),
+                    service.getDelay() * 50,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds a periodic service to the timer shared by the services with the same period and phase,
+     * creating the timer if there is none. Two services have the same phase if the first firing of the new service
+     * falls on a firing of the shared timer.
+     *
+     * @param service The periodic service to schedule.
+     * @param current The scheduler of this pool.
+     * @return The membership of the service in the shared timer, which can be disposed to stop only this service.
+     */
+    private Disposable fuse(IService service, Scheduler current) {
+        long period = Math.max(1L, service.getPeriod());
+        long now = current.now(TimeUnit.NANOSECONDS);
+        Set<FusedTimer> groups = fusedTimers.computeIfAbsent(period, key -> ConcurrentHashMap.newKeySet());
+
+        for (FusedTimer group : groups) {
+            Disposable member = group.join(service, now);
+            if (member != null) return member;
+        }
+
+        FusedTimer group = new FusedTimer(period, service.getDelay(), current, now);
+        Disposable member = group.join(service, now);
+        groups.add(group);
+        return member;
+    }
+
+    /**
+     * Runs a single firing of a service, applying the rate limiter of the service (if it is an {@link ExecutableService})
+     * and then the rate limiter of this pool. If either limiter drops the execution, the service is skipped for this firing,
+     * and a permit already taken from the rate limiter of the service is given back.
+     * If either limiter delays the execution, the service is rescheduled on this pool's scheduler once a permit is available.
+     * If this pool is paused, the firing is handled by the {@link MissedFiringPolicy} instead.
+     *
+     * @param service The service to run.
+     */
+    void dispatch(IService service) {
+        ServiceMetrics serviceMetrics = getMetrics(service);
+        serviceMetrics.setNextFire(service.isPeriodic() ? System.currentTimeMillis() + service.getPeriod() * 50 : 0L);
+
+        if (paused) {
+            miss(service);
+            return;
+        }
+
+        long wait = 0L;
+        RateLimiter serviceLimiter = null;
+
+        if (service instanceof ExecutableService executable) {
+            serviceLimiter = executable.getRateLimiter();
+            if (serviceLimiter != null) {
+                wait = serviceLimiter.acquire();
+                if (wait == RateLimiter.DENIED) return;
+            }
+        }
+
+        RateLimiter poolLimiter = this.rateLimiter;
+        if (poolLimiter != null) {
+            long poolWait = poolLimiter.acquire();
+            if (poolWait == RateLimiter.DENIED) {
+                // The service does not lose its permit for an execution which never happens.
+                if (serviceLimiter != null) serviceLimiter.refund(wait);
+                return;
+            }
+            wait = Math.max(wait, poolWait);
+        }
+
+        if (wait > 0L) {
+            scheduleLater(() -> {
+                if (paused) {
+                    miss(service);
+                } else {
+                    execute(service);
+                }
+            }, wait);
+        } else {
+            execute(service);
+        }
+    }
+
+    /**
+     * Handles a firing which occurred while this pool was paused. One-shot services are always buffered,
+     * as dropping their only firing would mean they never execute.
+     *
+     * @param service The service which missed its firing.
+     */
+    private void miss(IService service) {
+        skippedFirings.increment();
+
+        if (missedFiringPolicy == MissedFiringPolicy.BUFFER || !service.isPeriodic()) {
+            missedFirings.add(service);
+            // The pool may have been resumed while the firing was being buffered.
+            if (!paused) replayMissedFirings();
+        }
+    }
+
+    /**
+     * Schedules a single execution of every service which missed a firing while this pool was paused.
+     */
+    private void replayMissedFirings() {
+        Iterator<IService> iterator = missedFirings.iterator();
+        while (iterator.hasNext()) {
+            IService service = iterator.next();
+            iterator.remove();
+            submit(() -> dispatch(service));
+        }
+    }
+
+    /**
+     * Pauses this pool, dropping any firings of periodic services which occur while it is paused.
+     *
+     * @return A {@link Mono} object which can be used to pause the pool.
+     * @see #pause(MissedFiringPolicy)
+     */
+    public @NotNull Mono<Void> pause() {
+        return pause(MissedFiringPolicy.DROP);
+    }
+
+    /**
+     * Pauses this pool. While paused, the timers of the services in this pool keep running,
+     * but their firings do not execute the services; they are handled by the given policy instead.
+     * Because the timers are never cancelled, pausing and resuming is cheap regardless of how many services
+     * the pool contains, and every periodic service keeps its original phase once the pool is resumed.
+     *
+     * @param policy What happens to firings which occur while the pool is paused.
+     * @return A {@link Mono} object which can be used to pause the pool.
+     */
+    public @NotNull Mono<Void> pause(@NotNull MissedFiringPolicy policy) {
+        return Mono.fromRunnable(() -> {
+            missedFiringPolicy = policy;
+            paused = true;
+        });
+    }
+
+    /**
+     * Resumes this pool. Each service which missed one or more firings while the pool was paused
+     * and buffered them is executed once, immediately.
+     *
+     * @return A {@link Mono} object which can be used to resume the pool.
+     */
+    public @NotNull Mono<Void> resume() {
+        return Mono.fromRunnable(() -> {
+            paused = false;
+            replayMissedFirings();
+        });
+    }
+
+    /**
+     * Sets whether periodic services with the same period and phase share a single timer. A shared timer runs
+     * its services one after another, or hands each of them to the scheduler on multithreaded pools,
+     * so a pool with thousands of periodic services only keeps a handful of timers. Each service can still
+     * be cancelled or rescheduled on its own, through the {@link Disposable} returned by {@link #queueService(IService)}.
+     * Fusion is enabled by default, is never applied on a {@link DeadlineScheduler}, and only affects services
+     * queued after it is changed.
+     *
+     * @param fusionEnabled Whether periodic services should share timers.
+     */
+    public void setFusionEnabled(boolean fusionEnabled) {
+        this.fusionEnabled = fusionEnabled;
+    }
+
+    /**
+     * @return Whether periodic services with the same period and phase share a single timer.
+     */
+    public boolean isFusionEnabled() {
+        return fusionEnabled;
+    }
+
+    /**
+     * @return The number of timers this pool currently holds on its scheduler, counting each shared timer once.
+     */
+    public int getTimerCount() {
+        int count = timers.size();
+        for (Set<FusedTimer> groups : fusedTimers.values()) {
+            for (FusedTimer group : groups) {
+                count += 1 - group.size();
+            }
+        }
+        return Math.max(0, count);
+    }
+
+    /**
+     * @return Whether dispatching is currently suspended for this pool.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @return The number of threads currently executing a service of this pool.
+     */
+    int getBusyThreads() {
+        int busy = 0;
+        for (ServiceMetrics serviceMetrics : metrics.values()) {
+            busy += serviceMetrics.getRunning();
+        }
+        return busy;
+    }
+
+    /**
+     * @return The number of services waiting to replay a firing missed while this pool was paused.
+     */
+    int getMissedFiringCount() {
+        return missedFirings.size();
+    }
+
+    /**
+     * @return The number of firings which were skipped because this pool was paused.
+     */
+    public long getSkippedFirings() {
+        return skippedFirings.sum();
+    }
+
+    /**
+     * Runs a service on the current thread, recording the execution for any running {@link ServiceWatchdog}.
+     * A {@link SyncService} is executed directly, without subscribing to {@link IService#start()}.
+     *
+     * @param service The service to run.
+     */
+    private void execute(IService service) {
+        ServiceMetrics serviceMetrics = getMetrics(service);
+        ServiceWatchdog.ExecutionSlot slot = ServiceWatchdog.enter(this, service);
+        long start = serviceMetrics.recordStart();
+        try {
+            if (service instanceof ExecutableService executable && service instanceof SyncService sync) {
+                executable.executeSync(sync);
+            } else if (service instanceof SyncService sync) {
+                executeSync(sync, serviceMetrics);
+            } else {
+                service.run();
+            }
+        } finally {
+            serviceMetrics.recordEnd(start);
+            ServiceWatchdog.exit(slot);
+        }
+
+        // A one-shot timer is finished once it has executed, so it no longer keeps this pool alive.
+        if (!service.isPeriodic()) {
+            TimerHandle handle = timers.get(service);
+            if (handle != null) handle.release();
+        }
+    }
+
+    /**
+     * Runs a {@link SyncService} directly, reporting any exception it throws as a failed execution.
+     *
+     * @param service        The service to run.
+     * @param serviceMetrics The execution statistics of the service.
+     */
+    private void executeSync(SyncService service, ServiceMetrics serviceMetrics) {
+        try {
+            service.execute();
+        } catch (RuntimeException ex) {
+            serviceMetrics.recordFailure();
+            FailureChannel.publish(new ExecutionFailure(service, this, Instant.now(), ex));
+
+            JavaPlugin plugin = service.getPlugin();
+            if (plugin != null) {
+                plugin.getLogger().log(Level.WARNING, "The service " + service.getName() + " failed to execute.", ex);
+            }
+        }
+    }
+
+    /**
+     * Gets the execution statistics of a service in this pool, creating them if the service has not been executed yet.
+     *
+     * @param service The service to get the statistics of.
+     * @return The execution statistics of the service.
+     */
+    public @NotNull ServiceMetrics getMetrics(@NotNull IService service) {
+        return metrics.computeIfAbsent(service, s -> new ServiceMetrics());
+    }
+
+    /**
+     * Performs an action for the statistics of every service this pool has executed, without copying them.
+     *
+     * @param action The action to perform.
+     */
+    void forEachMetrics(@NotNull BiConsumer<IService, ServiceMetrics> action) {
+        metrics.forEach(action);
+    }
+
+    /**
+     * Captures an immutable snapshot of this pool and every service registered with it.
+     * This only reads state which the executing threads publish without locking,
+     * so it never blocks or slows down the services in this pool.
+     *
+     * @return A snapshot of this pool.
+     */
+    public @NotNull PoolSnapshot snapshot() {
+        List<PoolSnapshot.ServiceSnapshot> services = new ArrayList<>();
+        for (IService service : List.copyOf(getAssociatedServices())) {
+            // A service which has never run is reported with empty statistics, without creating an entry for it.
+            ServiceMetrics serviceMetrics = metrics.get(service);
+            if (serviceMetrics == null) serviceMetrics = new ServiceMetrics();
+            long nextFire = serviceMetrics.getNextFireMillis();
+            services.add(new PoolSnapshot.ServiceSnapshot(service.getName(),
+                    service.isPeriodic(),
+                    service.getPeriod(),
+                    nextFire == 0L ? null : Instant.ofEpochMilli(nextFire),
+                    serviceMetrics.getRunning() > 0,
+                    serviceMetrics.getExecutions(),
+                    serviceMetrics.getFailures(),
+                    Duration.ofNanos(serviceMetrics.getLastLatency()),
+                    Duration.ofNanos(serviceMetrics.getAverageLatency())));
+        }
+
+        Integer buffered = Scannable.from(scheduler).scan(Scannable.Attr.BUFFERED);
+        return new PoolSnapshot(getName(),
+                getSchedulerType(),
+                paused,
+                buffered == null ? -1 : buffered,
+                missedFirings.size(),
+                getSkippedFirings(),
+                List.copyOf(services));
+    }
+
+    /**
+     * @return A description of the scheduler this pool executes on.
+     */
+    public @NotNull String getSchedulerType() {
+        Scheduler current = scheduler;
+        if (current == null) return "idle";
+        return current instanceof ReactorBukkitScheduler ? "bukkit" : current.toString();
+    }
+
+    /**
+     * Schedules a task to run once on this pool's scheduler after the given amount of time,
+     * holding a reference to this pool until the task has run or has been cancelled.
+     *
+     * @param task  The task to run.
+     * @param nanos How long to wait (in nanoseconds) before running the task.
+     * @return A {@link Disposable} which can be used to cancel the task.
+     */
+    Disposable scheduleLater(Runnable task, long nanos) {
+        retain();
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable releaseOnce = () -> {
+            if (held.compareAndSet(true, false)) release();
+        };
+
+        Disposable scheduled;
+        try {
+            Runnable run = () -> {
+                try {
+                    task.run();
+                } finally {
+                    releaseOnce.run();
+                }
+            };
+            scheduled = nanos <= 0L ? getScheduler().schedule(run) : getScheduler().schedule(run, nanos, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException ex) {
+            releaseOnce.run();
+            throw ex;
+        }
+        return Disposables.composite(scheduled, releaseOnce::run);
+    }
+
     /**
      * This method can be used to start all the services registered with this pool.
      * If there are no services, this will do nothing.
@@ -208,6 +804,24 @@ public final class ServicePool implements Identifier {
                 .next();
     }
 
+    /**
+     * Gets a service based on its numerical id defined by {@link Identifier#getNumericalId()}.
+     * Services registered through this pool are found without allocating. Services which were added
+     * directly to {@link #getAssociatedServices()} are found by searching the pool instead.
+     *
+     * @param numericalId The numerical id of the service to get.
+     * @return The service, or null if there is no service with the numerical id in this pool.
+     */
+    public @Nullable IService getService(int numericalId) {
+        IService service = serviceRegistry.get(numericalId);
+        if (service != null) return service;
+
+        for (IService associated : getAssociatedServices()) {
+            if (associated.getNumericalId() == numericalId) return associated;
+        }
+        return null;
+    }
+
     /**
      * This method removes a service from the service pool set.
      *
@@ -215,6 +829,10 @@ public final class ServicePool implements Identifier {
      */
     void removeService(IService service) {
         getAssociatedServices().remove(service);
+        serviceRegistry.unregister(service);
+        TimerHandle handle = timers.get(service);
+        if (handle != null) handle.dispose();
+        metrics.remove(service);
     }
 
     /**
@@ -224,15 +842,218 @@ public final class ServicePool implements Identifier {
      * You will need to register services with this pool again before using it.
      */
     public @NotNull Mono<ServicePool> recycle() {
+        List.copyOf(this.timers.values()).forEach(TimerHandle::dispose);
         this.getAssociatedServices().clear();
+        this.serviceRegistry.clear();
+        this.metrics.clear();
+        releaseScheduler();
         return Mono.create(sink -> sink.success(this));
     }
 
     /**
-     * @return The {@link Scheduler} which hosts the threads for the service pool.
+     * Takes a reference to this pool for a new timer, reviving the pool if it has been reclaimed.
+     *
+     * @param service The service the timer belongs to.
+     * @return The handle of the new timer.
+     */
+    private synchronized TimerHandle acquire(IService service) {
+        revive();
+        references.incrementAndGet();
+        return new TimerHandle(service);
+    }
+
+    /**
+     * Registers this pool with its service manager again if it has been reclaimed. This must be called while holding
+     * the lock of this pool.
+     */
+    private void revive() {
+        if (!reclaimed) return;
+
+        reclaimed = false;
+        ServiceManager manager = owner;
+        if (manager != null) manager.revive(this);
+    }
+
+    /**
+     * Takes a reference to this pool for work which runs on its scheduler without a timer,
+     * such as a delayed retry or an asynchronous execution, so that the pool is not reclaimed while the work is in flight.
+     * Every call must be followed by exactly one call to {@link #release()}.
+     */
+    void retain() {
+        // Pairs with reclaim(), which marks the pool as reclaimed before checking the references again:
+        // either this sees the mark and revives the pool, or reclaim() sees this reference and backs off.
+        references.incrementAndGet();
+        if (reclaimed) {
+            synchronized (this) {
+                revive();
+            }
+        }
+    }
+
+    /**
+     * Releases a reference taken by {@link #retain()} or by a timer.
+     */
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            idleSince = System.nanoTime();
+        }
+    }
+
+    /**
+     * Holds a reference to this pool for as long as a Mono is subscribed to.
+     *
+     * @param mono The work which runs on this pool.
+     * @param <T>  The type of value the work emits.
+     * @return A Mono object which holds a reference to this pool from subscription until it terminates or is cancelled.
+     */
+    <T> @NotNull Mono<T> hold(@NotNull Mono<T> mono) {
+        return Mono.defer(() -> {
+            retain();
+            return mono.doFinally(signal -> release());
+        });
+    }
+
+    /**
+     * Runs a task once on this pool's scheduler, as soon as possible, holding a reference to this pool until it has run.
+     *
+     * @param task The task to run.
+     * @return A {@link Disposable} which can be used to cancel the task.
+     */
+    @NotNull Disposable submit(@NotNull Runnable task) {
+        return scheduleLater(task, 0L);
+    }
+
+    /**
+     * @return Whether this pool has no live timers, no running executions and no buffered firings.
+     */
+    public boolean isIdle() {
+        return references.get() == 0 && getBusyThreads() == 0 && missedFirings.isEmpty();
+    }
+
+    /**
+     * @return How long this pool has been idle, or {@link Duration#ZERO} if it is in use.
+     */
+    public @NotNull Duration getIdleTime() {
+        return isIdle() ? Duration.ofNanos(System.nanoTime() - idleSince) : Duration.ZERO;
+    }
+
+    /**
+     * Reclaims this pool if it is still idle, releasing its scheduler and removing it from its service manager.
+     * The pool is revived as soon as a service is queued on it again.
+     *
+     * @return Whether the pool was reclaimed.
+     */
+    synchronized boolean reclaim() {
+        if (reclaimed || !isIdle()) return false;
+        reclaimed = true;
+        // A reference taken before the mark was visible would otherwise be left with a disposed scheduler.
+        if (!isIdle()) {
+            reclaimed = false;
+            return false;
+        }
+        releaseScheduler();
+
+        ServiceManager manager = owner;
+        if (manager != null) manager.deregister(this);
+        return true;
+    }
+
+    /**
+     * Forgets the current scheduler, so that a new one is created when the pool is next used,
+     * disposing it if it is owned by this pool.
+     */
+    private synchronized void releaseScheduler() {
+        Scheduler current = scheduler;
+        scheduler = null;
+        if (ownsScheduler && current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * @param owner The service manager which this pool is registered with.
+     */
+    void setOwner(@Nullable ServiceManager owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return The rate limiter applied to every service in this pool, or null if the pool is not rate limited.
+     */
+    @Contract(pure = true)
+    public @Nullable RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Attaches a rate limiter to this pool. Every execution of every service in this pool will
+     * have to acquire a permit from the limiter before it can run.
+     *
+     * @param rateLimiter The rate limiter to attach, or null to remove the current rate limiter.
+     */
+    public void setRateLimiter(@Nullable RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * @return How long a single execution in this pool may run before it is reported by a {@link ServiceWatchdog},
+     * or null if the default budget of the watchdog is used.
+     */
+    @Contract(pure = true)
+    public @Nullable Duration getExecutionBudget() {
+        return executionBudget;
+    }
+
+    /**
+     * Sets how long a single execution in this pool may run before it is reported by a {@link ServiceWatchdog}.
+     *
+     * @param executionBudget The execution budget, or null to use the default budget of the watchdog.
+     */
+    public void setExecutionBudget(@Nullable Duration executionBudget) {
+        this.executionBudget = executionBudget;
+    }
+
+    /**
+     * @return The tracer recording the executions of this pool, or null if the pool is not traced.
      */
     @Contract(pure = true)
+    public @Nullable ExecutionTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Attaches a tracer to this pool. Each execution of an {@link ExecutableService} in this pool
+     * which starts after the tracer is attached is recorded as a separate trace.
+     *
+     * @param tracer The tracer to attach, or null to stop tracing this pool.
+     */
+    public void setTracer(@Nullable ExecutionTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * @return The {@link Scheduler} which hosts the threads for the service pool.
+     * If the pool has not been used yet, the scheduler is created by this call.
+     */
     public Scheduler getScheduler() {
+        Scheduler current = scheduler;
+        if (current != null) return current;
+
+        synchronized (this) {
+            if (scheduler == null) {
+                // Work which holds no timer can still need the scheduler of a reclaimed pool, which revives the pool.
+                revive();
+                scheduler = schedulerFactory.get();
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * @return The {@link Scheduler} which hosts the threads for the service pool,
+     * or null if the pool has not been used yet. Unlike {@link #getScheduler()}, this never creates the scheduler.
+     */
+    @Nullable Scheduler peekScheduler() {
         return scheduler;
     }
 
@@ -240,4 +1061,238 @@ public final class ServicePool implements Identifier {
     public String getName() {
         return name;
     }
+
+    @Override
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public int getNumericalId() {
+        return numericalId;
+    }
+
+    /**
+     * The handle of a queued service's timer, which holds a reference to this pool until it is disposed.
+     * The timer itself can be replaced by {@link #reschedule(IService, long, long, boolean)}.
+     */
+    private final class TimerHandle implements Disposable.Swap {
+        private final IService service;
+        private final Disposable.Swap timer = Disposables.swap();
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private TimerHandle(IService service) {
+            this.service = service;
+        }
+
+        @Override
+        public boolean update(@Nullable Disposable next) {
+            return timer.update(next);
+        }
+
+        @Override
+        public boolean replace(@Nullable Disposable next) {
+            return timer.replace(next);
+        }
+
+        @Override
+        public @Nullable Disposable get() {
+            return timer.get();
+        }
+
+        @Override
+        public void dispose() {
+            timer.dispose();
+            release();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return timer.isDisposed();
+        }
+
+        /**
+         * Releases the reference this timer holds to the pool. This only has an effect the first time it is called.
+         */
+        private void release() {
+            if (!released.compareAndSet(false, true)) return;
+
+            timers.remove(service, this);
+            ServicePool.this.release();
+        }
+    }
+
+    /**
+     * A single timer which fires every periodic service with the same period and phase.
+     * <p>
+     * The timer does not trust the scheduler's clock to count ticks, as the server may lag behind it.
+     * Instead, it remembers when it last fired (or, before its first firing, when it was created), and only uses
+     * the clock to measure the time since then. A service which joins is placed on a firing counted from there,
+     * so the clock can at most be off by the lag within a single period.
+     */
+    private final class FusedTimer implements Runnable {
+        private final long period;
+        private final long delay;
+        private final Scheduler scheduler;
+        private final boolean fanOut;
+        private final List<FusedMember> members = new CopyOnWriteArrayList<>();
+        private Disposable timer;
+        private boolean closed = false;
+        /**
+         * The number of times this timer has fired.
+         */
+        private long firings = 0L;
+        /**
+         * When this timer last fired, or when it was created if it has not fired yet, in nanoseconds of the scheduler's clock.
+         */
+        private long anchorTime;
+        /**
+         * How many ticks after {@link #anchorTime} the firing numbered {@link #firings} is due.
+         */
+        private long anchorOffset;
+
+        private FusedTimer(long period, long delay, Scheduler scheduler, long now) {
+            this.period = period;
+            this.delay = delay;
+            this.scheduler = scheduler;
+            this.anchorTime = now;
+            this.anchorOffset = delay;
+            // Services are only handed to the scheduler if it can run more than one of them at a time.
+            Integer capacity = Scannable.from(scheduler).scan(Scannable.Attr.CAPACITY);
+            this.fanOut = capacity != null && capacity > 1;
+        }
+
+        /**
+         * Adds a service to this timer if its first firing falls on a firing of this timer,
+         * starting the timer if it is the first service.
+         *
+         * @param service The service to add.
+         * @param now     The current time, in nanoseconds of the scheduler's clock.
+         * @return The membership of the service, or null if the service does not share the phase of this timer,
+         * or this timer has already been cancelled.
+         */
+        private synchronized @Nullable FusedMember join(IService service, long now) {
+            if (closed) return null;
+
+            long elapsed = Math.round((now - anchorTime) / 50_000_000.0);
+            long offset = elapsed + service.getDelay() - anchorOffset;
+            // A service which is due on the tick this timer has just fired on still shares its phase,
+            // but runs its first firing on its own.
+            boolean missed = firings > 0L && offset == -period;
+            if (!missed && (offset < 0L || offset % period != 0L)) return null;
+
+            FusedMember member = new FusedMember(this, service, missed ? firings : firings + offset / period);
+            members.add(member);
+            if (timer == null) {
+                timer = scheduler.schedulePeriodically(this, delay * 50, period * 50, TimeUnit.MILLISECONDS);
+            }
+            if (missed) {
+                scheduler.schedule(member);
+            }
+            return member;
+        }
+
+        /**
+         * Removes a service from this timer, cancelling the timer if it was the last service.
+         *
+         * @param member The membership of the service.
+         */
+        private synchronized void leave(FusedMember member) {
+            members.remove(member);
+            if (!members.isEmpty() || closed) return;
+
+            closed = true;
+            if (timer != null) timer.dispose();
+            Set<FusedTimer> groups = fusedTimers.get(period);
+            if (groups != null) groups.remove(this);
+        }
+
+        /**
+         * @return The number of services sharing this timer.
+         */
+        private int size() {
+            return members.size();
+        }
+
+        /**
+         * Counts a firing of this timer.
+         *
+         * @return The number of the firing.
+         */
+        private synchronized long fire() {
+            anchorTime = scheduler.now(TimeUnit.NANOSECONDS);
+            // The next firing is a whole period after this one.
+            anchorOffset = period;
+            return firings++;
+        }
+
+        @Override
+        public void run() {
+            long firing = fire();
+            for (FusedMember member : members) {
+                if (member.disposed || firing < member.firstFiring) continue;
+
+                if (!fanOut) {
+                    member.run();
+                    continue;
+                }
+
+                try {
+                    scheduler.schedule(member);
+                } catch (Throwable th) {
+                    // Only this member misses the firing; an exception escaping here would cancel the timer of every member.
+                    Exceptions.throwIfJvmFatal(th);
+                    Operators.onErrorDropped(th, Context.empty());
+                }
+            }
+        }
+    }
+
+    /**
+     * The membership of a single service in a {@link FusedTimer}. Disposing it only stops this service.
+     */
+    private final class FusedMember implements Runnable, Disposable {
+        private final FusedTimer group;
+        private final IService service;
+        private final long firstFiring;
+        private volatile boolean disposed = false;
+
+        private FusedMember(FusedTimer group, IService service, long firstFiring) {
+            this.group = group;
+            this.service = service;
+            this.firstFiring = firstFiring;
+        }
+
+        @Override
+        public void run() {
+            if (disposed) return;
+
+            try {
+                dispatch(service);
+            } catch (Throwable th) {
+                // A failing service stops repeating, as it would on its own timer, without affecting the other services.
+                Exceptions.throwIfJvmFatal(th);
+                Operators.onErrorDropped(th, Context.empty());
+                TimerHandle handle = timers.get(service);
+                if (handle != null && handle.get() == this) {
+                    // Disposing the handle also releases the reference it holds to this pool.
+                    handle.dispose();
+                } else {
+                    dispose();
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed) return;
+            disposed = true;
+            group.leave(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
 }
@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import io.github.simplexdevelopment.api.IService;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * A library-level watchdog which detects services that are stuck, or have exceeded their execution budget.
+ * <p>
+ * Every thread which executes services owns a single {@link ExecutionSlot}, which records the service currently
+ * executing on that thread. Recording an execution only writes to the slot of the executing thread,
+ * and nothing is recorded at all while no watchdog is running, so tracking has a negligible cost.
+ * <p>
+ * The watchdog thread periodically inspects every slot. When an execution exceeds the budget of its pool
+ * (see {@link ServicePool#setExecutionBudget(Duration)}) or the default budget of the watchdog,
+ * the stack of the executing thread is captured once, logged through the plugin's logger,
+ * and published to {@link #getReports()}.
+ *
+ * @author SimplexDevelopment
+ */
+public final class ServiceWatchdog {
+    /**
+     * The number of watchdogs which are currently running. Executions are only recorded while this is above 0.
+     */
+    private static final AtomicInteger RUNNING = new AtomicInteger(0);
+    /**
+     * Every execution slot which has been created, one per thread which has executed a service.
+     */
+    private static final Queue<ExecutionSlot> SLOTS = new ConcurrentLinkedQueue<>();
+    /**
+     * The execution slot of the current thread.
+     */
+    private static final ThreadLocal<ExecutionSlot> LOCAL_SLOT = ThreadLocal.withInitial(() -> {
+        ExecutionSlot slot = new ExecutionSlot(Thread.currentThread());
+        SLOTS.add(slot);
+        return slot;
+    });
+
+    /**
+     * The plugin which owns this watchdog. Only services belonging to this plugin are reported.
+     */
+    private final JavaPlugin plugin;
+    /**
+     * The budget used for pools which do not define their own execution budget.
+     */
+    private final long defaultBudget;
+    /**
+     * How long the watchdog thread waits between inspections.
+     */
+    private final long checkInterval;
+    /**
+     * The sink used to publish reports to subscribers.
+     */
+    private final Sinks.Many<StallReport> reports;
+    /**
+     * The watchdog thread, or null if the watchdog is not running.
+     */
+    private volatile Thread thread;
+
+    /**
+     * Creates a new watchdog. The watchdog must be started with {@link #start()}.
+     *
+     * @param plugin        The plugin which owns this watchdog.
+     * @param defaultBudget The budget used for pools which do not define their own execution budget.
+     * @param checkInterval How long the watchdog thread waits between inspections.
+     */
+    public ServiceWatchdog(@NotNull JavaPlugin plugin, @NotNull Duration defaultBudget, @NotNull Duration checkInterval) {
+        this.plugin = plugin;
+        this.defaultBudget = defaultBudget.toNanos();
+        this.checkInterval = Math.max(1L, checkInterval.toMillis());
+        this.reports = Sinks.many().multicast().directBestEffort();
+    }
+
+    /**
+     * Records the start of an execution on the current thread.
+     *
+     * @param pool    The pool the service is executing on.
+     * @param service The service which is executing.
+     * @return The slot of the current thread, or null if the execution is not being recorded.
+     */
+    static @Nullable ExecutionSlot enter(@NotNull ServicePool pool, @NotNull IService service) {
+        // Reading the counter itself keeps every watchdog in agreement; a separate flag could be left stale
+        // by watchdogs starting and stopping concurrently.
+        if (RUNNING.get() == 0) return null;
+
+        ExecutionSlot slot = LOCAL_SLOT.get();
+        if (slot.service != null) return null;
+
+        slot.pool = pool;
+        slot.startNanos = System.nanoTime();
+        slot.sequence++;
+        slot.service = service;
+        return slot;
+    }
+
+    /**
+     * Records the end of an execution.
+     *
+     * @param slot The slot returned by {@link #enter(ServicePool, IService)}.
+     */
+    static void exit(@Nullable ExecutionSlot slot) {
+        if (slot == null) return;
+
+        slot.service = null;
+        slot.pool = null;
+    }
+
+    /**
+     * Starts the watchdog thread. If the watchdog is already running, this does nothing.
+     */
+    public synchronized void start() {
+        if (thread != null) return;
+
+        thread = new Thread(this::loop, "SimplexSS Watchdog - " + plugin.getName());
+        thread.setDaemon(true);
+        RUNNING.incrementAndGet();
+        thread.start();
+    }
+
+    /**
+     * Stops the watchdog thread. If the watchdog is not running, this does nothing.
+     */
+    public synchronized void shutdown() {
+        Thread current = thread;
+        if (current == null) return;
+
+        thread = null;
+        current.interrupt();
+        RUNNING.decrementAndGet();
+    }
+
+    /**
+     * @return Whether the watchdog thread is running.
+     */
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * @return A hot Flux object which emits a report every time a service exceeds its execution budget.
+     */
+    public @NotNull Flux<StallReport> getReports() {
+        return reports.asFlux();
+    }
+
+    /**
+     * The body of the watchdog thread.
+     */
+    private void loop() {
+        while (thread == Thread.currentThread()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(checkInterval);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            inspect();
+        }
+    }
+
+    /**
+     * Inspects every execution slot, reporting any execution which has exceeded its budget,
+     * and discarding the slots of threads which have terminated.
+     */
+    private void inspect() {
+        long now = System.nanoTime();
+        Iterator<ExecutionSlot> iterator = SLOTS.iterator();
+
+        while (iterator.hasNext()) {
+            ExecutionSlot slot = iterator.next();
+            Thread owner = slot.thread.get();
+            if (owner == null || !owner.isAlive()) {
+                iterator.remove();
+                continue;
+            }
+
+            IService service = slot.service;
+            ServicePool pool = slot.pool;
+            long sequence = slot.sequence;
+            if (service == null || pool == null || slot.reported == sequence) continue;
+            if (service.getPlugin() != null && service.getPlugin() != plugin) continue;
+
+            Duration poolBudget = pool.getExecutionBudget();
+            long budget = poolBudget == null ? defaultBudget : poolBudget.toNanos();
+            long elapsed = now - slot.startNanos;
+            if (elapsed <= budget) continue;
+
+            StackTraceElement[] stackTrace = owner.getStackTrace();
+            if (slot.sequence != sequence || slot.service != service) continue;
+
+            slot.reported = sequence;
+            report(new StallReport(service.getName(), pool.getName(), owner.getName(),
+                    Duration.ofNanos(elapsed), Duration.ofNanos(budget), stackTrace));
+        }
+    }
+
+    /**
+     * Logs a report through the plugin's logger and publishes it to subscribers.
+     *
+     * @param report The report to publish.
+     */
+    private void report(StallReport report) {
+        StringBuilder builder = new StringBuilder()
+                .append("The service ").append(report.serviceName())
+                .append(" in the pool ").append(report.poolName())
+                .append(" has been executing for ").append(report.elapsed().toMillis()).append("ms")
+                .append(" (budget ").append(report.budget().toMillis()).append("ms)")
+                .append(" on thread ").append(report.threadName()).append(':');
+        for (StackTraceElement element : report.stackTrace()) {
+            builder.append(System.lineSeparator()).append("\tat ").append(element);
+        }
+        plugin.getLogger().log(Level.WARNING, builder.toString());
+
+        reports.tryEmitNext(report);
+    }
+
+    /**
+     * The record of the service currently executing on a single thread.
+     * Only the owning thread writes to the slot; the watchdog thread only reads from it,
+     * apart from marking which execution it has already reported.
+     */
+    static final class ExecutionSlot {
+        /**
+         * The thread which owns this slot.
+         */
+        private final WeakReference<Thread> thread;
+        /**
+         * The service currently executing, or null if the thread is idle.
+         */
+        private volatile IService service;
+        /**
+         * The pool of the service currently executing.
+         */
+        private volatile ServicePool pool;
+        /**
+         * When the current execution started, measured by {@link System#nanoTime()}.
+         */
+        private volatile long startNanos;
+        /**
+         * A counter which is incremented for every execution on this thread.
+         */
+        private volatile long sequence;
+        /**
+         * The sequence number of the last execution which was reported.
+         */
+        private volatile long reported = -1L;
+
+        private ExecutionSlot(Thread thread) {
+            this.thread = new WeakReference<>(thread);
+        }
+    }
+
+    /**
+     * A report of a service which has exceeded its execution budget.
+     *
+     * @param serviceName The name of the service.
+     * @param poolName    The name of the pool the service is executing on.
+     * @param threadName  The name of the thread executing the service.
+     * @param elapsed     How long the service had been executing when it was reported.
+     * @param budget      The execution budget which was exceeded.
+     * @param stackTrace  The stack of the executing thread when it was reported.
+     */
+    public record StallReport(@NotNull String serviceName,
+                              @NotNull String poolName,
+                              @NotNull String threadName,
+                              @NotNull Duration elapsed,
+                              @NotNull Duration budget,
+                              @NotNull StackTraceElement[] stackTrace) {
+    }
+}
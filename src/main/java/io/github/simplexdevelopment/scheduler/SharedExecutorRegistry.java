@@ -0,0 +1,451 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.ServicesManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A process-wide registry of worker threads, shared by every {@link SchedulingSystem} on the server.
+ * <p>
+ * Every plugin which uses this library usually brings its own copy of it (and of Reactor), so each copy would
+ * otherwise create its own Reactor schedulers, and the number of threads grows with the number of plugins.
+ * This registry instead keeps a single executor, with a global thread budget, registered with Bukkit's
+ * {@link ServicesManager} as a {@link ScheduledExecutorService}. Only JDK types are registered, so the executor
+ * is shared even between relocated copies of this library which cannot see each other's classes,
+ * and its threads are created by a JDK thread factory, so they never hold on to the classes of a plugin.
+ * Each copy wraps the shared executor in its own {@link Scheduler}.
+ * <p>
+ * The executor is registered on behalf of a plugin using it. When that plugin is released, the registration is
+ * handed over to another plugin of the same copy; once no plugin uses the executor any more, its idle threads exit.
+ * <p>
+ * The executor is intended for short, non-blocking work: once every thread in the budget is busy,
+ * further tasks wait in a queue. Blocking work should stay on a multithreaded {@link ServicePool}.
+ * <p>
+ * The work of each plugin is accounted separately, and can be inspected with {@link #getUsage()}.
+ *
+ * @author SimplexDevelopment
+ * @see ServiceManager#sharedServicePool(String, JavaPlugin)
+ */
+public final class SharedExecutorRegistry {
+    /**
+     * How long an idle thread of the shared executor is kept, in seconds.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+    /**
+     * The index of the number of scheduled tasks within a plugin's counters.
+     */
+    private static final int SCHEDULED = 0;
+    /**
+     * The index of the number of completed task executions within a plugin's counters.
+     */
+    private static final int COMPLETED = 1;
+    /**
+     * The index of the time (in nanoseconds) spent executing tasks within a plugin's counters.
+     */
+    private static final int BUSY_NANOS = 2;
+    /**
+     * The index of the number of tasks currently executing within a plugin's counters.
+     */
+    private static final int ACTIVE = 3;
+    /**
+     * The schedulers this copy of the library has created, keyed by plugin name.
+     */
+    private static final Map<String, Scheduler> SCHEDULERS = new ConcurrentHashMap<>();
+    /**
+     * The plugins which use the shared executor through this copy of the library, keyed by plugin name.
+     */
+    private static final Map<String, JavaPlugin> PLUGINS = new ConcurrentHashMap<>();
+    /**
+     * The counters of every plugin which has used the shared executor through this copy of the library, keyed by plugin name.
+     */
+    private static final Map<String, AtomicLongArray> USAGE = new ConcurrentHashMap<>();
+    /**
+     * The shared executor, or null until this copy of the library first needs it.
+     */
+    private static ScheduledThreadPoolExecutor executor;
+
+    private SharedExecutorRegistry() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Gets the scheduler through which a plugin runs work on the shared executor, creating it if necessary.
+     * All work scheduled through it is accounted to the plugin.
+     *
+     * @param plugin The plugin the work belongs to.
+     * @return The scheduler for the plugin.
+     */
+    public static @NotNull Scheduler forPlugin(@NotNull JavaPlugin plugin) {
+        return SCHEDULERS.computeIfAbsent(plugin.getName(), name -> {
+            PLUGINS.put(name, plugin);
+            return Schedulers.fromExecutorService(new PluginExecutor(executor(plugin), usage(name)),
+                    "simplexss-shared-" + name);
+        });
+    }
+
+    /**
+     * Releases the scheduler of a plugin, cancelling any work it still has on the shared executor.
+     * This should be called in {@link JavaPlugin#onDisable()}. The accounting of the plugin is kept.
+     *
+     * @param plugin The plugin to release.
+     */
+    public static void release(@NotNull JavaPlugin plugin) {
+        Scheduler scheduler = SCHEDULERS.remove(plugin.getName());
+        PLUGINS.remove(plugin.getName());
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+        handOver(plugin);
+    }
+
+    /**
+     * @return The maximum number of threads the shared executor may use, across every plugin.
+     */
+    public static int getThreadBudget() {
+        return executor(null).getCorePoolSize();
+    }
+
+    /**
+     * Changes the maximum number of threads the shared executor may use, across every plugin.
+     * The budget starts at the number of available processors.
+     *
+     * @param threads The new thread budget.
+     */
+    public static void setThreadBudget(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The thread budget must be at least one thread.");
+        }
+        executor(null).setCorePoolSize(threads);
+    }
+
+    /**
+     * @return The number of threads of the shared executor which are currently executing a task.
+     */
+    public static int getActiveThreads() {
+        return executor(null).getActiveCount();
+    }
+
+    /**
+     * @return The number of tasks waiting in the queue of the shared executor, including delayed and periodic tasks.
+     */
+    public static int getQueuedTasks() {
+        return executor(null).getQueue().size();
+    }
+
+    /**
+     * Gets the usage of the shared executor by every plugin which has used it through this copy of the library.
+     *
+     * @return The usage of each plugin, ordered by plugin name.
+     */
+    public static @NotNull List<PluginUsage> getUsage() {
+        Map<String, AtomicLongArray> usage = new TreeMap<>(USAGE);
+        List<PluginUsage> list = new ArrayList<>(usage.size());
+        usage.forEach((name, counters) -> list.add(new PluginUsage(name,
+                counters.get(SCHEDULED),
+                counters.get(COMPLETED),
+                Duration.ofNanos(counters.get(BUSY_NANOS)),
+                (int) counters.get(ACTIVE))));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Gets the shared executor. If this copy of the library has not used it yet, it is looked up in the services
+     * manager, and only created if no copy has registered one. If a plugin is given and the executor is not registered
+     * (for example because the plugin which registered it has been disabled), it is registered on behalf of the plugin.
+     *
+     * @param plugin The plugin on whose behalf the executor may be registered, or null to never register it.
+     * @return The shared executor.
+     */
+    private static synchronized ScheduledThreadPoolExecutor executor(@Nullable JavaPlugin plugin) {
+        ServicesManager services = plugin != null ? plugin.getServer().getServicesManager() : Bukkit.getServicesManager();
+        if (executor == null) {
+            executor = find(services);
+        }
+        if (executor == null) {
+            // The default thread factory is a JDK class, so the threads do not keep the class loader of this plugin alive.
+            executor = new ScheduledThreadPoolExecutor(Runtime.getRuntime().availableProcessors(), Executors.defaultThreadFactory());
+            executor.setRemoveOnCancelPolicy(true);
+            executor.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+        }
+        if (plugin != null && plugin.isEnabled() && !isRegistered(services)) {
+            services.register(ScheduledExecutorService.class, executor, plugin, ServicePriority.Lowest);
+        }
+        return executor;
+    }
+
+    /**
+     * Registers the shared executor on behalf of another plugin of this copy, if it was registered by a plugin
+     * which is being released. Bukkit removes the registrations of a plugin once it is disabled, and without
+     * a registration, copies of this library loaded later would create a second executor.
+     *
+     * @param released The plugin which is being released.
+     */
+    private static synchronized void handOver(JavaPlugin released) {
+        if (executor == null) return;
+
+        ServicesManager services = released.getServer().getServicesManager();
+        for (RegisteredServiceProvider<ScheduledExecutorService> registration : services.getRegistrations(ScheduledExecutorService.class)) {
+            if (registration.getProvider() != executor || registration.getPlugin() != released) continue;
+
+            services.unregister(ScheduledExecutorService.class, executor);
+            PLUGINS.values().stream()
+                    .filter(JavaPlugin::isEnabled)
+                    .findFirst()
+                    .ifPresent(plugin -> services.register(ScheduledExecutorService.class, executor, plugin, ServicePriority.Lowest));
+            return;
+        }
+    }
+
+    /**
+     * @param services The services manager of the server.
+     * @return The executor registered by any copy of this library, or null if there is none.
+     */
+    private static @Nullable ScheduledThreadPoolExecutor find(ServicesManager services) {
+        for (RegisteredServiceProvider<ScheduledExecutorService> registration : services.getRegistrations(ScheduledExecutorService.class)) {
+            if (registration.getProvider() instanceof ScheduledThreadPoolExecutor shared && !shared.isShutdown()) {
+                return shared;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param services The services manager of the server.
+     * @return Whether the shared executor of this copy is currently registered.
+     */
+    private static boolean isRegistered(ServicesManager services) {
+        for (RegisteredServiceProvider<ScheduledExecutorService> registration : services.getRegistrations(ScheduledExecutorService.class)) {
+            if (registration.getProvider() == executor) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param plugin The name of the plugin.
+     * @return The counters of the plugin, creating them if necessary.
+     */
+    private static AtomicLongArray usage(String plugin) {
+        return USAGE.computeIfAbsent(plugin, name -> new AtomicLongArray(4));
+    }
+
+    /**
+     * The usage of the shared executor by a single plugin.
+     *
+     * @param plugin    The name of the plugin.
+     * @param scheduled How many tasks the plugin has scheduled, with each periodic task counted once.
+     * @param completed How many task executions have completed, with each run of a periodic task counted.
+     * @param busyTime  How long the plugin's tasks have occupied the shared threads in total.
+     * @param active    How many of the plugin's tasks are executing right now.
+     */
+    public record PluginUsage(@NotNull String plugin, long scheduled, long completed, @NotNull Duration busyTime, int active) {
+    }
+
+    /**
+     * A view of the shared executor which accounts every task to a single plugin.
+     * Shutting down the view only cancels the plugin's own tasks; the shared executor keeps running.
+     */
+    private static final class PluginExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+        /**
+         * How many tasks may be scheduled between sweeps of {@link #futures}.
+         */
+        private static final int SWEEP_INTERVAL = 1024;
+        private final ScheduledThreadPoolExecutor shared;
+        private final AtomicLongArray usage;
+        /**
+         * The tasks which may still be pending, so that they can be cancelled on shutdown.
+         */
+        private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger untilSweep = new AtomicInteger(SWEEP_INTERVAL);
+        private volatile boolean shutdown = false;
+
+        private PluginExecutor(ScheduledThreadPoolExecutor shared, AtomicLongArray usage) {
+            this.shared = shared;
+            this.usage = usage;
+        }
+
+        /**
+         * Wraps a task so that its executions are accounted to the plugin.
+         *
+         * @param task The task to wrap.
+         * @return The wrapped task.
+         */
+        private Runnable account(Runnable task) {
+            usage.incrementAndGet(SCHEDULED);
+            return () -> {
+                usage.incrementAndGet(ACTIVE);
+                long start = System.nanoTime();
+                try {
+                    // Threads inherit the context class loader of the thread which created them, which may belong to a plugin.
+                    Thread.currentThread().setContextClassLoader(ClassLoader.getSystemClassLoader());
+                    task.run();
+                } finally {
+                    usage.addAndGet(BUSY_NANOS, System.nanoTime() - start);
+                    usage.incrementAndGet(COMPLETED);
+                    usage.decrementAndGet(ACTIVE);
+                }
+            };
+        }
+
+        /**
+         * Remembers a pending task, occasionally forgetting those which are done.
+         *
+         * @param future The pending task.
+         * @param <F>    The type of the task.
+         * @return The pending task.
+         */
+        private <F extends Future<?>> F track(F future) {
+            if (shutdown) {
+                future.cancel(true);
+                return future;
+            }
+            futures.add(future);
+            if (untilSweep.decrementAndGet() <= 0) {
+                untilSweep.set(SWEEP_INTERVAL);
+                futures.removeIf(Future::isDone);
+            }
+            return future;
+        }
+
+        /**
+         * @throws RejectedExecutionException If this view has been shut down.
+         */
+        private void ensureRunning() {
+            if (shutdown) {
+                throw new RejectedExecutionException("The scheduler of this plugin has been released.");
+            }
+        }
+
+        @Override
+        public void execute(@NotNull Runnable command) {
+            ensureRunning();
+            track(shared.submit(account(command)));
+        }
+
+        @Override
+        public @NotNull ScheduledFuture<?> schedule(@NotNull Runnable command, long delay, @NotNull TimeUnit unit) {
+            ensureRunning();
+            return track(shared.schedule(account(command), delay, unit));
+        }
+
+        @Override
+        public <V> @NotNull ScheduledFuture<V> schedule(@NotNull Callable<V> callable, long delay, @NotNull TimeUnit unit) {
+            ensureRunning();
+            usage.incrementAndGet(SCHEDULED);
+            return track(shared.schedule(() -> {
+                usage.incrementAndGet(ACTIVE);
+                long start = System.nanoTime();
+                try {
+                    Thread.currentThread().setContextClassLoader(ClassLoader.getSystemClassLoader());
+                    return callable.call();
+                } finally {
+                    usage.addAndGet(BUSY_NANOS, System.nanoTime() - start);
+                    usage.incrementAndGet(COMPLETED);
+                    usage.decrementAndGet(ACTIVE);
+                }
+            }, delay, unit));
+        }
+
+        @Override
+        public @NotNull ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable command, long initialDelay, long period, @NotNull TimeUnit unit) {
+            ensureRunning();
+            return track(shared.scheduleAtFixedRate(account(command), initialDelay, period, unit));
+        }
+
+        @Override
+        public @NotNull ScheduledFuture<?> scheduleWithFixedDelay(@NotNull Runnable command, long initialDelay, long delay, @NotNull TimeUnit unit) {
+            ensureRunning();
+            return track(shared.scheduleWithFixedDelay(account(command), initialDelay, delay, unit));
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            futures.forEach(future -> future.cancel(false));
+            futures.clear();
+        }
+
+        @Override
+        public @NotNull List<Runnable> shutdownNow() {
+            shutdown = true;
+            futures.forEach(future -> future.cancel(true));
+            futures.clear();
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && usage.get(ACTIVE) == 0L;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                if (System.nanoTime() >= deadline) return false;
+                Thread.sleep(1L);
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "shared";
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Processes a large collection on the main server thread, a slice at a time, so that it never causes a lag spike.
+ * Each tick, elements are processed until the {@link Budget} for the tick is used up, and the iteration resumes
+ * on the next tick, until every element has been processed or the iteration is cancelled.
+ * At least one element is processed every tick, so the iteration always makes progress.
+ * <p>
+ * The elements are read lazily from a {@link Spliterator}, so the collection should not be modified while it is
+ * being processed, unless its spliterator supports concurrent modification.
+ *
+ * @param <E> The type of element being processed.
+ * @author SimplexDevelopment
+ * @see SchedulingSystem#iterate(Iterable, Budget, Consumer)
+ */
+public final class SlicedIteration<E> {
+    /**
+     * The elements which have not been processed yet.
+     */
+    private final Spliterator<E> source;
+    /**
+     * The budget of each tick.
+     */
+    private final Budget budget;
+    /**
+     * The action performed on each element.
+     */
+    private final Consumer<? super E> action;
+    /**
+     * Completes once the iteration has finished, failed or been cancelled.
+     */
+    private final Sinks.One<Progress> completion = Sinks.one();
+    /**
+     * The number of elements in the source when the iteration started, or -1 if it is unknown.
+     */
+    private final long estimatedTotal;
+    /**
+     * The timer which runs a slice every tick.
+     */
+    private final Disposable.Swap timer = Disposables.swap();
+    /**
+     * The number of elements processed so far.
+     */
+    private volatile long processed = 0L;
+    /**
+     * The number of ticks in which a slice was processed.
+     */
+    private volatile long ticks = 0L;
+    /**
+     * The total time (in nanoseconds) spent processing slices.
+     */
+    private volatile long busyNanos = 0L;
+    /**
+     * The longest time (in nanoseconds) spent processing a single slice.
+     */
+    private volatile long maxSliceNanos = 0L;
+    /**
+     * Whether the iteration has been cancelled.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * Whether every element has been processed.
+     */
+    private volatile boolean completed = false;
+    /**
+     * Whether the action has thrown, after which the source is never advanced again.
+     */
+    private volatile boolean failed = false;
+
+    /**
+     * Creates a new iteration. The iteration does not start until {@link #start(Scheduler)} is called.
+     *
+     * @param source The elements to process.
+     * @param budget The budget of each tick.
+     * @param action The action to perform on each element.
+     */
+    SlicedIteration(@NotNull Spliterator<E> source, @NotNull Budget budget, @NotNull Consumer<? super E> action) {
+        this.source = source;
+        this.budget = budget;
+        this.action = action;
+        this.estimatedTotal = source.hasCharacteristics(Spliterator.SIZED) ? source.estimateSize() : -1L;
+    }
+
+    /**
+     * Starts processing a slice every tick on the given scheduler.
+     *
+     * @param mainScheduler The scheduler of the main server thread.
+     * @return This iteration.
+     */
+    SlicedIteration<E> start(@NotNull Scheduler mainScheduler) {
+        timer.update(mainScheduler.schedulePeriodically(this::slice, 0L, 50L, TimeUnit.MILLISECONDS));
+        return this;
+    }
+
+    /**
+     * Processes a single slice. This runs on the main server thread, once per tick.
+     */
+    private void slice() {
+        if (cancelled || completed || failed) return;
+
+        long start = System.nanoTime();
+        long timeLimit = budget.time().toNanos();
+        int itemLimit = budget.items();
+        long count = 0L;
+        boolean remaining;
+
+        try {
+            do {
+                remaining = source.tryAdvance(action);
+                if (remaining) count++;
+            } while (remaining
+                    && !cancelled
+                    && count < itemLimit
+                    && System.nanoTime() - start < timeLimit);
+        } catch (Throwable th) {
+            // The timer is stopped and the iteration failed before a fatal error is rethrown,
+            // so the broken source is never advanced again.
+            failed = true;
+            record(start, count);
+            timer.dispose();
+            completion.tryEmitError(th);
+            Exceptions.throwIfFatal(th);
+            return;
+        }
+
+        record(start, count);
+        if (!remaining) {
+            completed = true;
+            timer.dispose();
+            completion.tryEmitValue(getProgress());
+        }
+    }
+
+    /**
+     * Records the statistics of a slice.
+     *
+     * @param start When the slice started, measured by {@link System#nanoTime()}.
+     * @param count How many elements the slice processed.
+     */
+    private void record(long start, long count) {
+        long elapsed = System.nanoTime() - start;
+        processed += count;
+        ticks++;
+        busyNanos += elapsed;
+        if (elapsed > maxSliceNanos) maxSliceNanos = elapsed;
+    }
+
+    /**
+     * Cancels this iteration. The slice which is currently being processed (if any) stops after its current element,
+     * and {@link #completion()} emits the progress made so far.
+     */
+    public void cancel() {
+        if (completed || cancelled || failed) return;
+
+        cancelled = true;
+        timer.dispose();
+        completion.tryEmitValue(getProgress());
+    }
+
+    /**
+     * @return A Mono object which emits the final progress of this iteration once every element has been processed,
+     * or once it has been cancelled. If the action throws, the Mono emits the error instead.
+     */
+    public @NotNull Mono<Progress> completion() {
+        return completion.asMono();
+    }
+
+    /**
+     * @return The progress of this iteration so far.
+     */
+    public @NotNull Progress getProgress() {
+        return new Progress(processed,
+                estimatedTotal,
+                ticks,
+                Duration.ofNanos(busyNanos),
+                Duration.ofNanos(maxSliceNanos),
+                completed,
+                cancelled);
+    }
+
+    /**
+     * How much work may be done on the main server thread each tick. A slice ends as soon as either limit is reached.
+     *
+     * @param time  The longest time a slice may take. The element being processed when the time runs out is always finished.
+     * @param items The largest number of elements a slice may process.
+     */
+    public record Budget(@NotNull Duration time, int items) {
+        public Budget {
+            if (items < 1) {
+                throw new IllegalArgumentException("A slice must be allowed to process at least one item.");
+            }
+            if (time.isNegative() || time.isZero()) {
+                throw new IllegalArgumentException("A slice must be allowed a positive amount of time.");
+            }
+        }
+
+        /**
+         * @param time The longest time a slice may take.
+         * @return A budget limited only by time.
+         */
+        public static @NotNull Budget ofTime(@NotNull Duration time) {
+            return new Budget(time, Integer.MAX_VALUE);
+        }
+
+        /**
+         * @param items The largest number of elements a slice may process.
+         * @return A budget limited only by the number of elements, with at most one tick (50 milliseconds) of time.
+         */
+        public static @NotNull Budget ofItems(int items) {
+            return new Budget(Duration.ofMillis(50L), items);
+        }
+    }
+
+    /**
+     * The progress of a {@link SlicedIteration}.
+     *
+     * @param processed      The number of elements processed.
+     * @param estimatedTotal The number of elements in the collection when the iteration started, or -1 if it is unknown.
+     * @param ticks          The number of ticks in which a slice was processed.
+     * @param busyTime       The total time spent processing slices on the main server thread.
+     * @param maxSliceTime   The longest time spent processing a single slice.
+     * @param completed      Whether every element has been processed.
+     * @param cancelled      Whether the iteration was cancelled.
+     */
+    public record Progress(long processed,
+                           long estimatedTotal,
+                           long ticks,
+                           @NotNull Duration busyTime,
+                           @NotNull Duration maxSliceTime,
+                           boolean completed,
+                           boolean cancelled) {
+        /**
+         * @return The fraction of the elements which have been processed, between 0 and 1,
+         * or -1 if the number of elements is unknown and the iteration has not completed.
+         */
+        public double fraction() {
+            if (completed) return 1.0;
+            if (estimatedTotal <= 0L) return estimatedTotal == 0L ? 1.0 : -1.0;
+            return Math.min(1.0, (double) processed / estimatedTotal);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An abstract service which consumes a {@link Flux} of events instead of executing periodically.
+ * Events are collected into a bounded buffer and delivered to {@link #accept(List)} in batches,
+ * either when a full batch is available or when the batch timeout elapses, whichever happens first.
+ * Batches are always delivered one at a time on the scheduler of the parent {@link ServicePool}.
+ * <p>
+ * When the buffer is full, the {@link OverflowStrategy} decides what happens to new events.
+ * {@link OverflowStrategy#BLOCK} will block the producing thread until space is available,
+ * unless the event is produced on the main server thread or on a non-blocking Reactor thread
+ * (such as the default pool scheduler), in which case the event is dropped instead.
+ * <p>
+ * The subscription to the source is created by {@link #start()} and disposed by {@link #stop()},
+ * so this service can be queued and stopped through its {@link ServicePool} like any other service.
+ * Each delivered batch is recorded as an execution in the {@link ServiceMetrics} of this service,
+ * and keeps the pool from being reclaimed until it has been processed.
+ *
+ * @param <T> The type of event consumed by this service.
+ * @author SimplexDevelopment
+ */
+public abstract class StreamService<T> extends ExecutableService {
+    /**
+     * The source of events for this service.
+     */
+    private final Flux<T> source;
+    /**
+     * The bounded buffer which holds events until they are delivered.
+     */
+    private final BlockingQueue<T> buffer;
+    /**
+     * What to do with new events when the buffer is full.
+     */
+    private final OverflowStrategy overflow;
+    /**
+     * The maximum number of events delivered in a single batch.
+     */
+    private final int batchSize;
+    /**
+     * How long (in nanoseconds) an incomplete batch may wait before it is delivered.
+     */
+    private final long batchTimeout;
+    /**
+     * The active subscription to the source, if the service has been started.
+     */
+    private final AtomicReference<Disposable> subscription = new AtomicReference<>();
+    /**
+     * Whether a batch is currently being delivered.
+     */
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    /**
+     * Whether a timed flush of an incomplete batch has been scheduled.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    /**
+     * Whether the delivery of a full batch has been submitted to the pool and has not yet run.
+     */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    /**
+     * The number of events received from the source.
+     */
+    private final LongAdder received = new LongAdder();
+    /**
+     * The number of events dropped due to a full buffer.
+     */
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * The number of events delivered to {@link #accept(List)}.
+     */
+    private final LongAdder delivered = new LongAdder();
+    /**
+     * The number of batches delivered to {@link #accept(List)}.
+     */
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * Creates a new stream service with a buffer of 256 events, which drops the oldest events on overflow
+     * and delivers batches of up to 16 events at least once per second.
+     *
+     * @param parentPool   The {@link ServicePool} which this service is executing on.
+     * @param service_name A namespaced key which can be used to identify the service.
+     * @param source       The source of events for this service.
+     */
+    protected StreamService(@Nullable ServicePool parentPool,
+                            @NotNull String service_name,
+                            @NotNull Flux<T> source) {
+        this(parentPool, service_name, source, 256, OverflowStrategy.DROP_OLDEST, 16, Duration.ofSeconds(1L));
+    }
+
+    /**
+     * Creates a new stream service.
+     *
+     * @param parentPool   The {@link ServicePool} which this service is executing on.
+     * @param service_name A namespaced key which can be used to identify the service.
+     * @param source       The source of events for this service.
+     * @param bufferSize   The maximum number of events which may be waiting for delivery.
+     * @param overflow     What to do with new events when the buffer is full.
+     * @param batchSize    The maximum number of events delivered in a single batch.
+     * @param batchTimeout How long an incomplete batch may wait before it is delivered.
+     */
+    protected StreamService(@Nullable ServicePool parentPool,
+                            @NotNull String service_name,
+                            @NotNull Flux<T> source,
+                            int bufferSize,
+                            @NotNull OverflowStrategy overflow,
+                            int batchSize,
+                            @NotNull Duration batchTimeout) {
+        super(parentPool, service_name);
+
+        if (bufferSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Buffer size and batch size must be at least 1");
+        }
+
+        this.source = source;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.overflow = overflow;
+        this.batchSize = Math.min(batchSize, bufferSize);
+        this.batchTimeout = batchTimeout.toNanos();
+    }
+
+    /**
+     * Delivers a batch of events to this service. Batches are delivered one at a time;
+     * the next batch will not be delivered until the returned Mono completes.
+     *
+     * @param batch The events to process. This list will never be empty.
+     * @return An encapsulated Mono object representing the processing of the batch.
+     */
+    protected abstract Mono<Void> accept(@NotNull List<T> batch);
+
+    /**
+     * Subscribes to the source of events. If the service is already subscribed, this does nothing.
+     *
+     * @return An encapsulated Mono object representing the subscription.
+     */
+    @Override
+    public Mono<Void> start() {
+        return Mono.fromRunnable(() -> {
+            if (subscription.get() != null) return;
+
+            Disposable disposable = source.subscribe(this::offer, this::onSourceError);
+            if (!subscription.compareAndSet(null, disposable)) {
+                disposable.dispose();
+            }
+        });
+    }
+
+    /**
+     * Disposes of the subscription to the source of events.
+     * Events which are still buffered will be delivered as normal.
+     *
+     * @return An encapsulated Mono object representing the disposal.
+     */
+    @Override
+    public Mono<Void> stop() {
+        return Mono.fromRunnable(() -> {
+            Disposable disposable = subscription.getAndSet(null);
+            if (disposable != null) disposable.dispose();
+        });
+    }
+
+    /**
+     * Places an event into the buffer, applying the {@link OverflowStrategy} if the buffer is full.
+     *
+     * @param event The event to buffer.
+     */
+    private void offer(T event) {
+        received.increment();
+
+        switch (overflow) {
+            case DROP_LATEST -> {
+                if (!buffer.offer(event)) dropped.increment();
+            }
+            case DROP_OLDEST -> {
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) dropped.increment();
+                }
+            }
+            case BLOCK -> {
+                if (Bukkit.isPrimaryThread() || Schedulers.isInNonBlockingThread()) {
+                    if (!buffer.offer(event)) dropped.increment();
+                } else {
+                    try {
+                        buffer.put(event);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        dropped.increment();
+                    }
+                }
+            }
+        }
+
+        if (buffer.size() >= batchSize) {
+            scheduleDrain();
+        } else {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Handles an error signalled by the source. The subscription has ended at this point,
+     * so it is cleared to allow the service to be started again; buffered events are still delivered.
+     *
+     * @param throwable The error signalled by the source.
+     */
+    private void onSourceError(Throwable throwable) {
+        subscription.set(null);
+        onFailure(throwable);
+
+        if (!buffer.isEmpty()) scheduleFlush();
+    }
+
+    /**
+     * Submits the delivery of a full batch to the pool, if one has not already been submitted.
+     */
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            currentPool().submit(() -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Schedules the delivery of an incomplete batch once the batch timeout has elapsed,
+     * if one has not already been scheduled.
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            currentPool().scheduleLater(() -> {
+                flushScheduled.set(false);
+                drain();
+            }, batchTimeout);
+        }
+    }
+
+    /**
+     * Delivers the next batch of buffered events, if no other batch is currently being delivered.
+     */
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) return;
+
+        List<T> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+        buffer.drainTo(batch, batchSize);
+
+        if (batch.isEmpty()) {
+            draining.set(false);
+            return;
+        }
+
+        batches.increment();
+        delivered.add(batch.size());
+
+        // Each batch is recorded as an execution of this service, and holds the pool until it has been processed.
+        // Deferring the call turns an exception thrown by accept() into an error signal, so the guard is always released.
+        ServicePool pool = currentPool();
+        ServiceMetrics serviceMetrics = pool.getMetrics(this);
+        long start = serviceMetrics.recordStart();
+        pool.hold(Mono.defer(() -> accept(batch)))
+                .doFinally(signal -> serviceMetrics.recordEnd(start))
+                .subscribe(null, th -> {
+                    onFailure(th);
+                    afterBatch();
+                }, this::afterBatch);
+    }
+
+    /**
+     * Releases the delivery guard and schedules the next batch, if there is one.
+     */
+    private void afterBatch() {
+        draining.set(false);
+
+        if (buffer.size() >= batchSize) {
+            scheduleDrain();
+        } else if (!buffer.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * @return The number of events currently waiting for delivery.
+     */
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * @return A snapshot of the statistics for this stream service.
+     */
+    public @NotNull StreamStatistics getStatistics() {
+        return new StreamStatistics(received.sum(), dropped.sum(), delivered.sum(), batches.sum());
+    }
+
+    /**
+     * What a {@link StreamService} should do with new events when its buffer is full.
+     */
+    public enum OverflowStrategy {
+        /**
+         * The oldest buffered event is discarded to make room for the new event.
+         */
+        DROP_OLDEST,
+        /**
+         * The new event is discarded.
+         */
+        DROP_LATEST,
+        /**
+         * The producing thread is blocked until space is available.
+         * Events produced on the main server thread or on a non-blocking Reactor thread are never blocked,
+         * and are discarded instead.
+         */
+        BLOCK
+    }
+
+    /**
+     * A point-in-time view of the statistics of a {@link StreamService}.
+     *
+     * @param received  The number of events received from the source.
+     * @param dropped   The number of events dropped due to a full buffer.
+     * @param delivered The number of events delivered to the service.
+     * @param batches   The number of batches delivered to the service.
+     */
+    public record StreamStatistics(long received, long dropped, long delivered, long batches) {
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+
+/**
+ * The trace and span of the current stage of a traced execution.
+ * This is stored in the Reactor context of a traced execution under the key {@code TraceContext.class},
+ * so it follows the execution across scheduler hops.
+ *
+ * @param tracer   The tracer recording the execution.
+ * @param traceId  The id of the trace, shared by every span of a single execution.
+ * @param spanId   The id of this span.
+ * @param parentId The id of the parent span, or 0 if this is the root span.
+ * @param pool     The name of the pool the execution started on.
+ * @param service  The name of the service which is executing.
+ * @author SimplexDevelopment
+ * @see ExecutionTracer
+ */
+public record TraceContext(@NotNull ExecutionTracer tracer,
+                           long traceId,
+                           long spanId,
+                           long parentId,
+                           @NotNull String pool,
+                           @NotNull String service) {
+    /**
+     * @return A Mono object which contains the trace context of the execution it is subscribed within,
+     * or an empty Mono if it is not subscribed within a traced execution.
+     */
+    public static @NotNull Mono<TraceContext> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(TraceContext.class)));
+    }
+
+    /**
+     * @return A new span within the same trace, whose parent is this span.
+     */
+    @NotNull TraceContext child() {
+        return new TraceContext(tracer, traceId, tracer.nextSpanId(), spanId, pool, service);
+    }
+}
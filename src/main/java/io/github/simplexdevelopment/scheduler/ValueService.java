@@ -0,0 +1,349 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An abstract service which produces values, and caches the latest value for each key.
+ * <p>
+ * Values are read with {@link #get(Object)}. A cached value is returned immediately until it is older than the
+ * time-to-live; after that, the value is recomputed with {@link #compute(Object)} on the scheduler of the parent
+ * {@link ServicePool}. Recomputation is single-flight: however many readers request a stale or missing key
+ * at the same time, {@link #compute(Object)} is only called once, and every reader receives its result.
+ * Failed computations are not cached, so the next read tries again.
+ * <p>
+ * The cache holds at most a fixed number of keys, evicting the least recently read key when it is full.
+ * <p>
+ * When this service is queued, each execution refreshes, in the background, every cached value which would expire
+ * before the next execution. Keys which are read regularly therefore never expire, and readers never wait for them.
+ * Stopping the service clears the cache, and discards the results of computations which were already running.
+ * A service which caches a single value can use a constant key.
+ *
+ * @param <K> The type of key.
+ * @param <V> The type of value.
+ * @author SimplexDevelopment
+ */
+public abstract class ValueService<K, V> extends ExecutableService {
+    /**
+     * How long (in nanoseconds) a computed value stays fresh.
+     */
+    private final long timeToLive;
+    /**
+     * The maximum number of keys which may be cached.
+     */
+    private final int maximumSize;
+    /**
+     * The cached values, in order of least to most recently read. Guarded by itself.
+     */
+    private final LinkedHashMap<K, CachedValue<V>> cache;
+    /**
+     * The computations which are currently running, keyed by the key they compute.
+     */
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    /**
+     * How many times this service has been stopped. A computation only caches its result if the service
+     * has not been stopped since the computation started. This is only written while holding the cache.
+     */
+    private volatile long generation = 0L;
+    /**
+     * The number of reads which were answered from the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * The number of reads which had to wait for a computation.
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * The number of computations which have been started.
+     */
+    private final LongAdder loads = new LongAdder();
+    /**
+     * The number of computations which have failed.
+     */
+    private final LongAdder failures = new LongAdder();
+    /**
+     * The number of keys which were evicted because the cache was full.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new value service which refreshes its values in the background at half of the time-to-live.
+     *
+     * @param parentPool   The {@link ServicePool} which this service is executing on.
+     * @param service_name A namespaced key which can be used to identify the service.
+     * @param timeToLive   How long a computed value stays fresh.
+     * @param maximumSize  The maximum number of keys which may be cached.
+     */
+    protected ValueService(@Nullable ServicePool parentPool,
+                           @NotNull String service_name,
+                           @NotNull Duration timeToLive,
+                           int maximumSize) {
+        this(parentPool, service_name, timeToLive, maximumSize, timeToLive.dividedBy(2L));
+    }
+
+    /**
+     * Creates a new value service.
+     *
+     * @param parentPool      The {@link ServicePool} which this service is executing on.
+     * @param service_name    A namespaced key which can be used to identify the service.
+     * @param timeToLive      How long a computed value stays fresh.
+     * @param maximumSize     The maximum number of keys which may be cached.
+     * @param refreshInterval How often the service executes when queued, refreshing the values which are about to expire.
+     *                        This is rounded up to whole ticks.
+     */
+    protected ValueService(@Nullable ServicePool parentPool,
+                           @NotNull String service_name,
+                           @NotNull Duration timeToLive,
+                           int maximumSize,
+                           @NotNull Duration refreshInterval) {
+        super(parentPool,
+                service_name,
+                Math.max(1L, (refreshInterval.toMillis() + 49L) / 50L),
+                Math.max(1L, (refreshInterval.toMillis() + 49L) / 50L),
+                true,
+                false);
+
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+
+        this.timeToLive = timeToLive.toNanos();
+        this.maximumSize = maximumSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() <= ValueService.this.maximumSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Computes the value for a key. This is called on the scheduler of the parent pool,
+     * and is never called concurrently for the same key.
+     *
+     * @param key The key to compute the value of.
+     * @return An encapsulated Mono object which emits the value.
+     */
+    protected abstract @NotNull Mono<V> compute(@NotNull K key);
+
+    /**
+     * Reads the value for a key. If the cached value is fresh, it is returned without any computation;
+     * otherwise, the value is computed (or the running computation is joined) and cached.
+     *
+     * @param key The key to read.
+     * @return A Mono object which emits the value of the key.
+     */
+    public @NotNull Mono<V> get(@NotNull K key) {
+        return Mono.defer(() -> {
+            CachedValue<V> cached;
+            synchronized (cache) {
+                cached = cache.get(key);
+            }
+
+            if (cached != null && System.nanoTime() - cached.computedAt() < timeToLive) {
+                hits.increment();
+                return Mono.just(cached.value());
+            }
+
+            misses.increment();
+            return load(key);
+        });
+    }
+
+    /**
+     * @param key The key to read.
+     * @return The cached value of the key, even if it is stale, or null if the key is not cached.
+     * This never starts a computation.
+     */
+    public @Nullable V getIfPresent(@NotNull K key) {
+        synchronized (cache) {
+            CachedValue<V> cached = cache.get(key);
+            return cached == null ? null : cached.value();
+        }
+    }
+
+    /**
+     * Computes the value of a key, or joins the computation which is already running for it.
+     *
+     * @param key The key to compute.
+     * @return A Mono object which emits the computed value.
+     */
+    private Mono<V> load(K key) {
+        return inFlight.computeIfAbsent(key, k -> {
+            AtomicReference<Mono<V>> self = new AtomicReference<>();
+            long started = generation;
+            ServicePool pool = currentPool();
+            // The scheduler is only looked up once the computation holds a reference to the pool.
+            Mono<V> flight = pool.hold(Mono.defer(() -> Mono.defer(() -> {
+                                loads.increment();
+                                return compute(k);
+                            })
+                            .subscribeOn(pool.getScheduler())))
+                    .doOnNext(value -> store(k, value, started))
+                    .doOnError(th -> failures.increment())
+                    .doFinally(signal -> inFlight.remove(k, self.get()))
+                    .cache();
+            self.set(flight);
+            return flight;
+        });
+    }
+
+    /**
+     * Caches a computed value, unless this service has been stopped since the computation started.
+     *
+     * @param key     The key of the value.
+     * @param value   The value.
+     * @param started The {@link #generation} in which the computation started.
+     */
+    private void store(K key, V value, long started) {
+        CachedValue<V> cached = new CachedValue<>(value, System.nanoTime());
+        synchronized (cache) {
+            if (generation == started) cache.put(key, cached);
+        }
+    }
+
+    /**
+     * Removes a key from the cache, so that the next read computes it again.
+     * A computation which is already running for the key will still cache its result.
+     *
+     * @param key The key to remove.
+     */
+    public void invalidate(@NotNull K key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Removes every key from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Refreshes every cached value which would expire before the next execution of this service.
+     *
+     * @return An encapsulated Mono object representing the refresh, which completes once every refresh has finished.
+     */
+    @Override
+    public Mono<Void> start() {
+        return Flux.defer(() -> Flux.fromIterable(expiringKeys(getPeriod() * 50_000_000L)))
+                .flatMap(key -> load(key).onErrorResume(th -> Mono.empty()))
+                .then();
+    }
+
+    /**
+     * Clears the cache. Computations which are still running complete for their readers, but their results are not cached.
+     *
+     * @return An encapsulated Mono object representing the operation.
+     */
+    @Override
+    public Mono<Void> stop() {
+        return Mono.fromRunnable(() -> {
+            synchronized (cache) {
+                generation++;
+                cache.clear();
+            }
+        });
+    }
+
+    /**
+     * @param withinNanos How soon a value has to expire to be included.
+     * @return The keys whose cached values expire within the given time.
+     */
+    private List<K> expiringKeys(long withinNanos) {
+        long now = System.nanoTime();
+        List<K> keys = new ArrayList<>();
+        synchronized (cache) {
+            // Iterating the entries does not count as a read, so the order of the cache is unaffected.
+            cache.forEach((key, cached) -> {
+                if (now - cached.computedAt() + withinNanos >= timeToLive) keys.add(key);
+            });
+        }
+        return keys;
+    }
+
+    /**
+     * @return A point-in-time view of the statistics of this cache.
+     */
+    public @NotNull CacheStatistics getStatistics() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return new CacheStatistics(hits.sum(), misses.sum(), loads.sum(), failures.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * A computed value, and when it was computed.
+     *
+     * @param value      The value.
+     * @param computedAt When the value was computed, measured by {@link System#nanoTime()}.
+     * @param <V>        The type of value.
+     */
+    private record CachedValue<V>(V value, long computedAt) {
+    }
+
+    /**
+     * A point-in-time view of the statistics of a {@link ValueService}.
+     *
+     * @param hits      The number of reads which were answered from the cache.
+     * @param misses    The number of reads which had to wait for a computation.
+     * @param loads     The number of computations which have been started.
+     * @param failures  The number of computations which have failed.
+     * @param evictions The number of keys which were evicted because the cache was full.
+     * @param size      The number of keys currently cached.
+     */
+    public record CacheStatistics(long hits, long misses, long loads, long failures, long evictions, int size) {
+        /**
+         * @return The fraction of reads which were answered from the cache, or 0 if there have been no reads.
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0L ? 0.0 : (double) hits / total;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the lookups, replacements and removals of an {@link IdentifierRegistry}, including numerical ids shared by
+ * identifiers with different names.
+ *
+ * @author SimplexDevelopment
+ */
+class IdentifierRegistryTest {
+    private final IdentifierRegistry<Key> registry = new IdentifierRegistry<>();
+
+    @Test
+    void collidingIdsWithDifferentNamesAreKeptApart() {
+        Key first = new Key("first", 7);
+        Key second = new Key("second", 7);
+        registry.register(first);
+        registry.register(second);
+
+        assertEquals(2, registry.size());
+        assertSame(first, registry.get(new Key("first", 7)));
+        assertSame(second, registry.get(new Key("second", 7)));
+        assertNull(registry.get(new Key("third", 7)));
+        assertNotNull(registry.get(7));
+    }
+
+    @Test
+    void registeringTheSameIdAndNameReplacesTheEntry() {
+        Key original = new Key("service", 3);
+        Key replacement = new Key("service", 3);
+        registry.register(original);
+        registry.register(replacement);
+
+        assertEquals(1, registry.size());
+        assertSame(replacement, registry.get(original));
+        assertEquals(List.of(replacement), registry.values());
+    }
+
+    @Test
+    void unregisteredEntriesAreNoLongerFound() {
+        Key first = new Key("first", 7);
+        Key second = new Key("second", 7);
+        Key other = new Key("other", 8);
+        registry.registerAll(List.of(first, second, other));
+
+        assertTrue(registry.unregister(first));
+        assertFalse(registry.unregister(first));
+        assertNull(registry.get(first));
+        assertFalse(registry.contains(first));
+        // The colliding entry is probed past the removed slot.
+        assertSame(second, registry.get(second));
+        assertSame(second, registry.get(7));
+        assertSame(other, registry.get(8));
+        assertEquals(2, registry.size());
+
+        registry.register(first);
+        assertSame(first, registry.get(first));
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    void survivesManyRegistrationsAndRemovals() {
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            keys.add(new Key("key-" + i, i % 13));
+        }
+
+        for (int round = 0; round < 5; round++) {
+            registry.registerAll(keys);
+            for (int i = 0; i < keys.size(); i += 2) {
+                assertTrue(registry.unregister(keys.get(i)));
+            }
+            assertEquals(keys.size() / 2, registry.size());
+            for (int i = 0; i < keys.size(); i++) {
+                if (i % 2 == 0) {
+                    assertNull(registry.get(keys.get(i)), keys.get(i).getName());
+                } else {
+                    assertSame(keys.get(i), registry.get(keys.get(i)), keys.get(i).getName());
+                }
+            }
+
+            for (int i = 1; i < keys.size(); i += 2) {
+                assertTrue(registry.unregister(keys.get(i)));
+            }
+            assertEquals(0, registry.size());
+            assertTrue(registry.values().isEmpty());
+        }
+    }
+
+    /**
+     * An identifier with a chosen numerical id, so that collisions can be forced.
+     */
+    private static final class Key implements Identifier {
+        private final String name;
+        private final int numericalId;
+
+        private Key(String name, int numericalId) {
+            this.name = name;
+            this.numericalId = numericalId;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getNumericalId() {
+            return numericalId;
+        }
+    }
+}
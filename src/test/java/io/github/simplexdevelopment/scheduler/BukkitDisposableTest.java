@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a {@link BukkitDisposable} stays in step with the task it wraps.
+ *
+ * @author SimplexDevelopment
+ */
+class BukkitDisposableTest {
+    private final FakeBukkitScheduler bukkit = new FakeBukkitScheduler();
+    private final FakePlugin plugin = new FakePlugin(bukkit);
+
+    @Test
+    void disposeCancelsTheTask() {
+        int[] runs = new int[1];
+        FakeBukkitScheduler.FakeTask task = bukkit.schedule(plugin, () -> runs[0]++, 1L, 0L);
+        BukkitDisposable disposable = new BukkitDisposable(task);
+
+        assertFalse(disposable.isDisposed());
+        disposable.dispose();
+        bukkit.tick();
+
+        assertTrue(task.isCancelled());
+        assertTrue(disposable.isDisposed());
+        assertEquals(0, runs[0]);
+    }
+
+    @Test
+    void reflectsTasksCancelledThroughTheScheduler() {
+        FakeBukkitScheduler.FakeTask task = bukkit.schedule(plugin, () -> {
+        }, 1L, 1L);
+        BukkitDisposable disposable = new BukkitDisposable(task);
+
+        plugin.getServer().getScheduler().cancelTask(task.getTaskId());
+
+        assertTrue(disposable.isDisposed());
+        assertFalse(bukkit.isQueued(task.getTaskId()));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the transitions of a {@link CircuitBreaker} between its closed, open and half-open states.
+ *
+ * @author SimplexDevelopment
+ */
+class CircuitBreakerTest {
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofMinutes(1L));
+        assertFalse(breaker.recordFailure(false));
+        assertFalse(breaker.recordFailure(false));
+        breaker.recordSuccess(false);
+        assertFalse(breaker.recordFailure(false));
+        assertFalse(breaker.recordFailure(false));
+        assertTrue(breaker.recordFailure(false));
+
+        assertSame(CircuitBreaker.State.OPEN, breaker.getState());
+        assertSame(CircuitBreaker.Permit.DENIED, breaker.tryAcquire());
+        assertEquals(1L, breaker.getTrips());
+        assertEquals(1L, breaker.getRejected());
+    }
+
+    @Test
+    void grantsASingleTrialAfterTheCoolDown() {
+        CircuitBreaker breaker = open();
+
+        assertSame(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+        assertSame(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertSame(CircuitBreaker.Permit.DENIED, breaker.tryAcquire());
+    }
+
+    @Test
+    void aSuccessfulTrialClosesTheBreaker() {
+        CircuitBreaker breaker = open();
+        assertSame(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+
+        breaker.recordSuccess(true);
+        assertSame(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertSame(CircuitBreaker.Permit.GRANTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void aFailedTrialOpensTheBreakerAgain() {
+        CircuitBreaker breaker = open();
+        assertSame(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+
+        assertTrue(breaker.recordFailure(true));
+        assertSame(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2L, breaker.getTrips());
+    }
+
+    @Test
+    void resultsOfOtherExecutionsDoNotDecideTheTrial() {
+        CircuitBreaker breaker = open();
+        assertSame(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+
+        // Executions which were allowed before the breaker opened may still finish during the trial.
+        breaker.recordSuccess(false);
+        assertSame(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.recordFailure(false));
+        assertSame(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void anAbandonedTrialAllowsANewTrial() {
+        CircuitBreaker breaker = open();
+        assertSame(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+
+        breaker.abandonTrial();
+        assertSame(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+    }
+
+    /**
+     * @return A breaker which has just opened, and whose cool-down has already elapsed.
+     */
+    private static CircuitBreaker open() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        assertTrue(breaker.recordFailure(false));
+        return breaker;
+    }
+}
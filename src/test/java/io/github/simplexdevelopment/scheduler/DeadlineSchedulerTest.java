@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link DeadlineScheduler}, driven by a {@link VirtualTickScheduler} in place of the main server thread.
+ *
+ * @author SimplexDevelopment
+ */
+class DeadlineSchedulerTest {
+    private final VirtualTickScheduler mainThread = new VirtualTickScheduler();
+    private final DeadlineScheduler scheduler = new DeadlineScheduler(mainThread, Duration.ofMillis(10L));
+
+    @Test
+    void rejectsTasksOnceDisposed() {
+        scheduler.dispose();
+
+        assertThrows(RejectedExecutionException.class, () -> scheduler.schedule(() -> {
+        }));
+        assertThrows(RejectedExecutionException.class, () -> scheduler.createWorker().schedule(() -> {
+        }));
+    }
+
+    @Test
+    void keepsPeriodicTasksWhichThrowAnError() {
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.schedulePeriodically(() -> {
+            if (runs.incrementAndGet() == 1) {
+                throw new AssertionError("Simulated error.");
+            }
+        }, 1L, 1L, Duration.ofMillis(50L));
+
+        assertThrows(AssertionError.class, mainThread::tick);
+        mainThread.advance(3L);
+
+        assertEquals(4, runs.get());
+    }
+
+    @Test
+    void cancelledAndPendingTasksNeverRun() {
+        AtomicInteger runs = new AtomicInteger();
+        Scheduler.Worker worker = scheduler.createWorker();
+        Disposable cancelled = worker.schedule(runs::incrementAndGet, 1L, TimeUnit.SECONDS);
+        Disposable pending = worker.schedule(runs::incrementAndGet, 2L, TimeUnit.SECONDS);
+        Disposable direct = scheduler.schedule(runs::incrementAndGet, 2L, TimeUnit.SECONDS);
+
+        cancelled.dispose();
+        mainThread.advance(25L);
+        assertEquals(0, runs.get());
+
+        scheduler.dispose();
+        assertTrue(pending.isDisposed());
+        assertTrue(direct.isDisposed());
+        mainThread.advance(25L);
+        assertEquals(0, runs.get());
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A stand-in for the Bukkit scheduler which is driven by {@link #tick()} instead of a running server.
+ * Every task runs on the thread which calls {@link #tick()}, which plays the part of the main server thread.
+ * <p>
+ * Only the synchronous {@code runTask}, {@code runTaskLater} and {@code runTaskTimer} methods which take a
+ * {@link Runnable} are supported, along with task cancellation. Any other method of the {@link BukkitScheduler}
+ * returned by {@link #asBukkitScheduler()} throws an {@link UnsupportedOperationException}.
+ *
+ * @author SimplexDevelopment
+ */
+final class FakeBukkitScheduler {
+    /**
+     * The tasks which have been scheduled and not yet finished, ordered by due tick and then by the order they were queued.
+     */
+    private final PriorityQueue<FakeTask> queue = new PriorityQueue<>(Comparator
+            .comparingLong((FakeTask task) -> task.dueTick)
+            .thenComparingLong(task -> task.sequence));
+    /**
+     * The tasks which have been scheduled and not yet finished, by id.
+     */
+    private final Map<Integer, FakeTask> tasks = new HashMap<>();
+    /**
+     * The id of the next scheduled task.
+     */
+    private int nextId = 1;
+    /**
+     * The sequence number of the next queued task, used to keep the order of tasks due on the same tick.
+     */
+    private long sequence = 0L;
+    /**
+     * The current tick.
+     */
+    private long currentTick = 0L;
+    /**
+     * The view of this fake as a {@link BukkitScheduler}.
+     */
+    private final BukkitScheduler bukkitScheduler = (BukkitScheduler) Proxy.newProxyInstance(
+            BukkitScheduler.class.getClassLoader(),
+            new Class<?>[]{BukkitScheduler.class},
+            this::invoke);
+
+    /**
+     * @return A {@link BukkitScheduler} which schedules its tasks on this fake.
+     */
+    @NotNull BukkitScheduler asBukkitScheduler() {
+        return bukkitScheduler;
+    }
+
+    /**
+     * Dispatches a call on the {@link BukkitScheduler} proxy.
+     *
+     * @param proxy  The proxy which was called.
+     * @param method The method which was called.
+     * @param args   The arguments of the call.
+     * @return The result of the call.
+     */
+    private Object invoke(Object proxy, Method method, Object[] args) {
+        Class<?>[] types = method.getParameterTypes();
+        boolean runnable = types.length >= 2 && types[0] == Plugin.class && types[1] == Runnable.class;
+
+        return switch (method.getName()) {
+            case "runTask" -> runnable ? schedule((Plugin) args[0], (Runnable) args[1], 1L, 0L) : unsupported(method);
+            case "runTaskLater" -> runnable ? schedule((Plugin) args[0], (Runnable) args[1], (long) args[2], 0L) : unsupported(method);
+            case "runTaskTimer" -> runnable ? schedule((Plugin) args[0], (Runnable) args[1], (long) args[2], (long) args[3]) : unsupported(method);
+            case "cancelTask" -> {
+                cancel((int) args[0]);
+                yield null;
+            }
+            case "isQueued" -> isQueued((int) args[0]);
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "FakeBukkitScheduler";
+            default -> unsupported(method);
+        };
+    }
+
+    /**
+     * @param method The method which was called.
+     * @return Never returns.
+     */
+    private static Object unsupported(Method method) {
+        throw new UnsupportedOperationException("FakeBukkitScheduler does not support " + method);
+    }
+
+    /**
+     * Schedules a task. As on the server, a delay below one tick runs the task on the next tick.
+     *
+     * @param owner  The plugin which owns the task.
+     * @param task   The task to run.
+     * @param delay  How many ticks to wait before the first run.
+     * @param period How many ticks to wait between runs, or 0 if the task only runs once.
+     * @return The scheduled task.
+     */
+    synchronized @NotNull FakeTask schedule(@NotNull Plugin owner, @NotNull Runnable task, long delay, long period) {
+        FakeTask fakeTask = new FakeTask(nextId++, owner, task, Math.max(0L, period));
+        fakeTask.dueTick = currentTick + Math.max(1L, delay);
+        fakeTask.sequence = sequence++;
+        queue.add(fakeTask);
+        tasks.put(fakeTask.getTaskId(), fakeTask);
+        return fakeTask;
+    }
+
+    /**
+     * Advances by a single tick, running every task which is due on it in the order it was scheduled.
+     *
+     * @return The number of tasks which ran.
+     */
+    int tick() {
+        long tick;
+        synchronized (this) {
+            tick = ++currentTick;
+        }
+
+        int ran = 0;
+        FakeTask task;
+        while ((task = poll(tick)) != null) {
+            try {
+                task.task.run();
+            } finally {
+                ran++;
+                synchronized (this) {
+                    if (task.period > 0L && !task.isCancelled()) {
+                        task.dueTick = tick + task.period;
+                        task.sequence = sequence++;
+                        queue.add(task);
+                    } else {
+                        tasks.remove(task.getTaskId());
+                    }
+                }
+            }
+        }
+        return ran;
+    }
+
+    /**
+     * Removes the next task due on or before the given tick, discarding any which have been cancelled.
+     * Tasks scheduled while the tick is running are due on a later tick, so they are never returned.
+     *
+     * @param tick The tick which is running.
+     * @return The next task to run, or null if there are none left for this tick.
+     */
+    private synchronized FakeTask poll(long tick) {
+        FakeTask next;
+        while ((next = queue.peek()) != null && next.dueTick <= tick) {
+            queue.poll();
+            if (!next.isCancelled()) return next;
+            tasks.remove(next.getTaskId());
+        }
+        return null;
+    }
+
+    /**
+     * Advances by the given number of ticks.
+     *
+     * @param ticks The number of ticks to advance by.
+     * @return The number of tasks which ran.
+     */
+    int advance(long ticks) {
+        int ran = 0;
+        for (long i = 0L; i < ticks; i++) {
+            ran += tick();
+        }
+        return ran;
+    }
+
+    /**
+     * Cancels the task with the given id, if it is still scheduled.
+     *
+     * @param taskId The id of the task.
+     */
+    synchronized void cancel(int taskId) {
+        FakeTask task = tasks.get(taskId);
+        if (task != null) task.cancel();
+    }
+
+    /**
+     * @param taskId The id of a task.
+     * @return Whether the task is still waiting to run.
+     */
+    synchronized boolean isQueued(int taskId) {
+        FakeTask task = tasks.get(taskId);
+        return task != null && !task.isCancelled();
+    }
+
+    /**
+     * @return The number of tasks which are still scheduled.
+     */
+    synchronized int getPending() {
+        return (int) tasks.values().stream().filter(task -> !task.isCancelled()).count();
+    }
+
+    /**
+     * @return The current tick.
+     */
+    synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * A task scheduled on a {@link FakeBukkitScheduler}.
+     */
+    static final class FakeTask implements BukkitTask {
+        /**
+         * The id of the task.
+         */
+        private final int taskId;
+        /**
+         * The plugin which owns the task.
+         */
+        private final Plugin owner;
+        /**
+         * The task to run.
+         */
+        private final Runnable task;
+        /**
+         * How many ticks to wait between runs, or 0 if the task only runs once.
+         */
+        private final long period;
+        /**
+         * The tick the task is next due on.
+         */
+        private long dueTick;
+        /**
+         * The order in which the task was queued.
+         */
+        private long sequence;
+        /**
+         * Whether the task has been cancelled.
+         */
+        private volatile boolean cancelled = false;
+
+        private FakeTask(int taskId, Plugin owner, Runnable task, long period) {
+            this.taskId = taskId;
+            this.owner = owner;
+            this.task = task;
+            this.period = period;
+        }
+
+        @Override
+        public int getTaskId() {
+            return taskId;
+        }
+
+        @Override
+        public @NotNull Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * A plugin which can be created outside of a running server, for testing the classes which require a {@link JavaPlugin}.
+ * Its server only provides the {@link FakeBukkitScheduler} it was created with; every other method of the
+ * server throws an {@link UnsupportedOperationException}.
+ *
+ * @author SimplexDevelopment
+ */
+final class FakePlugin extends JavaPlugin {
+    /**
+     * The scheduler which runs the tasks of this plugin.
+     */
+    private final FakeBukkitScheduler scheduler;
+
+    /**
+     * Creates a new plugin, with a server which runs tasks on the given scheduler.
+     *
+     * @param scheduler The scheduler which runs the tasks of this plugin.
+     */
+    @SuppressWarnings("deprecation")
+    FakePlugin(@NotNull FakeBukkitScheduler scheduler) {
+        super(new JavaPluginLoader(fakeServer(scheduler)),
+                new PluginDescriptionFile("FakePlugin", "1.0", FakePlugin.class.getName()),
+                new File("build/fake-plugin"),
+                new File("build/fake-plugin.jar"));
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return The scheduler which runs the tasks of this plugin.
+     */
+    @NotNull FakeBukkitScheduler getFakeScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Creates a server which only provides the given scheduler.
+     *
+     * @param scheduler The scheduler to provide.
+     * @return The server.
+     */
+    private static Server fakeServer(FakeBukkitScheduler scheduler) {
+        Logger logger = Logger.getLogger("FakeServer");
+        return (Server) Proxy.newProxyInstance(Server.class.getClassLoader(),
+                new Class<?>[]{Server.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getScheduler" -> scheduler.asBukkitScheduler();
+                    case "getLogger" -> logger;
+                    case "getName" -> "FakeServer";
+                    case "isPrimaryThread" -> true;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "FakeServer";
+                    default -> throw new UnsupportedOperationException("FakeServer does not support " + method);
+                });
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A macro benchmark which simulates the main server loop at 20 ticks per second, while a configurable mix of services
+ * runs on each kind of {@link ServicePool}. It reports how long each tick took (MSPT), how far each firing deviated from
+ * its period (jitter), and how many executions each workload completed, so that the scheduler backends can be compared
+ * under a realistic load.
+ * <p>
+ * The simulation runs in real time. The main server thread is simulated by the thread which subscribes to
+ * {@link #run(Duration)}; services on the {@link Backend#BUKKIT} backend run on that thread, through the same
+ * {@link ServicePool#ServicePool(String, JavaPlugin)} and {@link ReactorBukkitScheduler} used on a server,
+ * over a {@link FakeBukkitScheduler} which is ticked once per loop, exactly as the Bukkit scheduler would run them.
+ * The other backends use the same Reactor schedulers as {@link ServicePool#ServicePool(String, boolean)}.
+ * <p>
+ * The simulator is part of the test sources and is not shipped with the library.
+ * It can be run with a default mix of workloads through {@code ./gradlew simulate -Pseconds=<seconds>}.
+ *
+ * @author SimplexDevelopment
+ */
+public final class LoadSimulator {
+    /**
+     * The length of a server tick, in nanoseconds.
+     */
+    private static final long TICK_NANOS = 50_000_000L;
+    /**
+     * The largest number of jitter samples kept for a single workload.
+     */
+    private static final int MAX_SAMPLES = 1 << 20;
+    /**
+     * The workloads which will run during the simulation.
+     */
+    private final List<Workload> workloads = new ArrayList<>();
+    /**
+     * How long the simulated server spends on its own work each tick, before any services are accounted for.
+     */
+    private Duration serverWork = Duration.ZERO;
+
+    /**
+     * Adds a workload to the simulation.
+     *
+     * @param workload The workload to add.
+     * @return This simulator, so that calls can be chained.
+     */
+    public @NotNull LoadSimulator addWorkload(@NotNull Workload workload) {
+        workloads.add(workload);
+        return this;
+    }
+
+    /**
+     * Sets how long the simulated server spends on its own work each tick (for example, ticking entities),
+     * so that the services are measured against a realistic baseline.
+     *
+     * @param serverWork The amount of work the server performs each tick.
+     * @return This simulator, so that calls can be chained.
+     */
+    public @NotNull LoadSimulator setServerWork(@NotNull Duration serverWork) {
+        this.serverWork = serverWork;
+        return this;
+    }
+
+    /**
+     * Runs the simulation. The returned Mono blocks the thread it is subscribed on for the whole duration,
+     * as that thread acts as the main server thread.
+     *
+     * @param duration How long the simulation should run for.
+     * @return A Mono object containing the report of the simulation.
+     */
+    public @NotNull Mono<Report> run(@NotNull Duration duration) {
+        return Mono.fromCallable(() -> simulate(duration));
+    }
+
+    /**
+     * Runs the simulation on the current thread.
+     *
+     * @param duration How long the simulation should run for.
+     * @return The report of the simulation.
+     */
+    private Report simulate(Duration duration) {
+        long expectedTicks = Math.max(1L, duration.toNanos() / TICK_NANOS);
+        FakeBukkitScheduler mainThread = new FakeBukkitScheduler();
+
+        Map<Backend, ServicePool> pools = new EnumMap<>(Backend.class);
+        pools.put(Backend.BUKKIT, new ServicePool("simulated-bukkit", new FakePlugin(mainThread)));
+        pools.put(Backend.SINGLE, new ServicePool("simulated-single", false));
+        pools.put(Backend.ELASTIC, new ServicePool("simulated-elastic", true));
+
+        List<List<SimulatedService>> services = new ArrayList<>();
+        List<Disposable> timers = new ArrayList<>();
+        for (int position = 0; position < workloads.size(); position++) {
+            Workload workload = workloads.get(position);
+            ServicePool pool = pools.get(workload.backend());
+            long firings = workload.services() * (expectedTicks / workload.period() + 1L);
+            Samples jitter = new Samples((int) Math.min(MAX_SAMPLES, firings));
+
+            List<SimulatedService> group = new ArrayList<>(workload.services());
+            for (int i = 0; i < workload.services(); i++) {
+                SimulatedService service = new SimulatedService(pool, workload, position, i, jitter);
+                group.add(service);
+                timers.add(pool.queueService(service).block());
+            }
+            services.add(group);
+        }
+
+        Samples mspt = new Samples((int) Math.min(Integer.MAX_VALUE, expectedTicks + 1L));
+        long serverNanos = serverWork.toNanos();
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+        long next = started;
+        long ticks = 0L;
+
+        while (next < end) {
+            long tickStart = System.nanoTime();
+            mainThread.tick();
+            spin(serverNanos);
+            mspt.record(System.nanoTime() - tickStart);
+            ticks++;
+
+            next += TICK_NANOS;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0L) {
+                LockSupport.parkNanos(sleep);
+            } else {
+                // Like the server, a lagging loop does not try to catch up on the ticks it missed.
+                next = System.nanoTime();
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        timers.forEach(Disposable::dispose);
+
+        List<WorkloadResult> results = new ArrayList<>(workloads.size());
+        for (int i = 0; i < workloads.size(); i++) {
+            Workload workload = workloads.get(i);
+            ServicePool pool = pools.get(workload.backend());
+            long executions = 0L;
+            long failures = 0L;
+            for (SimulatedService service : services.get(i)) {
+                ServiceMetrics serviceMetrics = pool.getMetrics(service);
+                executions += serviceMetrics.getExecutions();
+                failures += serviceMetrics.getFailures();
+                service.setCancelled(true);
+            }
+            results.add(new WorkloadResult(workload,
+                    executions,
+                    failures,
+                    executions * 1_000_000_000.0 / elapsed,
+                    services.get(i).get(0).jitter.distribution()));
+        }
+
+        return new Report(Duration.ofNanos(elapsed),
+                ticks,
+                ticks * 1_000_000_000.0 / elapsed,
+                mspt.distribution(),
+                results);
+    }
+
+    /**
+     * Keeps the current thread busy for the given amount of time.
+     *
+     * @param nanos How long to keep the thread busy, in nanoseconds.
+     */
+    private static void spin(long nanos) {
+        if (nanos <= 0L) return;
+        long until = System.nanoTime() + nanos;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Runs the simulation with a default mix of workloads, and prints the report.
+     *
+     * @param args The number of seconds to run for (60 by default).
+     */
+    public static void main(String[] args) {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 60L;
+        LoadSimulator simulator = new LoadSimulator()
+                .setServerWork(Duration.ofMillis(20))
+                .addWorkload(new Workload(Backend.BUKKIT, Behaviour.CPU, 500, 1L, Duration.ofNanos(10_000)))
+                .addWorkload(new Workload(Backend.BUKKIT, Behaviour.CPU, 5, 20L, Duration.ofMillis(2)))
+                .addWorkload(new Workload(Backend.SINGLE, Behaviour.CPU, 200, 5L, Duration.ofNanos(50_000)))
+                .addWorkload(new Workload(Backend.SINGLE, Behaviour.FAILING, 20, 20L, Duration.ofNanos(10_000)))
+                .addWorkload(new Workload(Backend.ELASTIC, Behaviour.BLOCKING, 50, 20L, Duration.ofMillis(30)))
+                .addWorkload(new Workload(Backend.ELASTIC, Behaviour.CPU, 50, 10L, Duration.ofMillis(5)));
+
+        System.out.println(simulator.run(Duration.ofSeconds(seconds)).block().format());
+        Schedulers.shutdownNow();
+    }
+
+    /**
+     * The kind of {@link ServicePool} a workload runs on.
+     */
+    public enum Backend {
+        /**
+         * A pool on the main server thread, as created by {@link ServicePool#ServicePool(String, JavaPlugin)}.
+         */
+        BUKKIT,
+        /**
+         * A pool on a single shared thread, as created by {@link ServicePool#ServicePool(String, boolean)}.
+         */
+        SINGLE,
+        /**
+         * A multithreaded pool, as created by {@link ServicePool#ServicePool(String, boolean)}.
+         */
+        ELASTIC
+    }
+
+    /**
+     * What a simulated service does when it executes.
+     */
+    public enum Behaviour {
+        /**
+         * Keeps the thread busy for the duration of the work.
+         */
+        CPU,
+        /**
+         * Parks the thread for the duration of the work, as blocking I/O would.
+         */
+        BLOCKING,
+        /**
+         * Keeps the thread busy for the duration of the work, and then fails.
+         */
+        FAILING
+    }
+
+    /**
+     * A group of identical services.
+     *
+     * @param backend   The kind of pool the services run on.
+     * @param behaviour What each service does when it executes.
+     * @param services  How many services are in the group.
+     * @param period    How many ticks each service waits between executions.
+     * @param work      How long each execution takes.
+     */
+    public record Workload(@NotNull Backend backend,
+                           @NotNull Behaviour behaviour,
+                           int services,
+                           long period,
+                           @NotNull Duration work) {
+        public Workload {
+            if (services <= 0) {
+                throw new IllegalArgumentException("A workload must contain at least one service.");
+            }
+            if (period <= 0L) {
+                throw new IllegalArgumentException("Period must be greater than 0L");
+            }
+        }
+    }
+
+    /**
+     * A summary of a set of measured durations.
+     *
+     * @param samples How many durations were measured.
+     * @param mean    The mean duration.
+     * @param p50     The median duration.
+     * @param p90     The 90th percentile.
+     * @param p99     The 99th percentile.
+     * @param max     The longest duration.
+     */
+    public record Distribution(long samples, Duration mean, Duration p50, Duration p90, Duration p99, Duration max) {
+        /**
+         * @return This distribution in milliseconds, as a single line.
+         */
+        public @NotNull String format() {
+            return String.format("n=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+                    samples, millis(mean), millis(p50), millis(p90), millis(p99), millis(max));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1_000_000.0;
+        }
+    }
+
+    /**
+     * The results of a single workload.
+     *
+     * @param workload   The workload.
+     * @param executions How many executions completed, including failed executions.
+     * @param failures   How many executions failed.
+     * @param throughput How many executions completed per second.
+     * @param jitter     How far the interval between consecutive firings deviated from the period of the services.
+     */
+    public record WorkloadResult(@NotNull Workload workload,
+                                 long executions,
+                                 long failures,
+                                 double throughput,
+                                 @NotNull Distribution jitter) {
+    }
+
+    /**
+     * The results of a simulation.
+     *
+     * @param elapsed   How long the simulation ran for.
+     * @param ticks     How many ticks the simulated server completed.
+     * @param tps       The average ticks per second.
+     * @param mspt      How long each tick took, including the services on the main server thread.
+     * @param workloads The results of each workload, in the order they were added.
+     */
+    public record Report(@NotNull Duration elapsed,
+                         long ticks,
+                         double tps,
+                         @NotNull Distribution mspt,
+                         @NotNull List<WorkloadResult> workloads) {
+        /**
+         * @return This report as human-readable text.
+         */
+        public @NotNull String format() {
+            StringBuilder builder = new StringBuilder()
+                    .append(String.format("Simulated %d ticks in %.1fs (%.2f TPS)%n",
+                            ticks, elapsed.toNanos() / 1_000_000_000.0, tps))
+                    .append("MSPT   ").append(mspt.format()).append(System.lineSeparator());
+            for (WorkloadResult result : workloads) {
+                Workload workload = result.workload();
+                builder.append(String.format("%-7s %-8s x%-5d every %dt, %.3fms: %.1f exec/s, %d failed%n       jitter %s%n",
+                        workload.backend(),
+                        workload.behaviour(),
+                        workload.services(),
+                        workload.period(),
+                        workload.work().toNanos() / 1_000_000.0,
+                        result.throughput(),
+                        result.failures(),
+                        result.jitter().format()));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * A fixed-size, thread-safe store of measured durations. Samples beyond the capacity are discarded.
+     */
+    private static final class Samples {
+        private final AtomicLongArray values;
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        private Samples(int capacity) {
+            this.values = new AtomicLongArray(Math.max(1, capacity));
+        }
+
+        /**
+         * @param nanos The duration to record, in nanoseconds.
+         */
+        private void record(long nanos) {
+            int index = count.getAndIncrement();
+            if (index < values.length()) {
+                values.set(index, nanos);
+            }
+        }
+
+        /**
+         * @return A summary of the recorded durations.
+         */
+        private Distribution distribution() {
+            int size = Math.min(count.get(), values.length());
+            if (size == 0) {
+                return new Distribution(0L, Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+            }
+
+            long[] sorted = new long[size];
+            long total = 0L;
+            for (int i = 0; i < size; i++) {
+                sorted[i] = values.get(i);
+                total += sorted[i];
+            }
+            Arrays.sort(sorted);
+
+            return new Distribution(size,
+                    Duration.ofNanos(total / size),
+                    Duration.ofNanos(percentile(sorted, 0.50)),
+                    Duration.ofNanos(percentile(sorted, 0.90)),
+                    Duration.ofNanos(percentile(sorted, 0.99)),
+                    Duration.ofNanos(sorted[size - 1]));
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+        }
+    }
+
+    /**
+     * A service which performs the work of a workload, and records the jitter of its firings.
+     */
+    private static final class SimulatedService extends ExecutableService {
+        private final Workload workload;
+        private final Samples jitter;
+        private final long periodNanos;
+        private long lastFire = 0L;
+
+        private SimulatedService(ServicePool pool, Workload workload, int position, int index, Samples jitter) {
+            // The workload's position is part of the name, as two workloads may share a backend and behaviour.
+            super(pool,
+                    "simulated-" + position + "-" + workload.backend().name().toLowerCase() + "-" + workload.behaviour().name().toLowerCase() + "-" + index,
+                    index % workload.period(),
+                    workload.period(),
+                    true,
+                    false);
+            this.workload = workload;
+            this.jitter = jitter;
+            this.periodNanos = workload.period() * TICK_NANOS;
+        }
+
+        @Override
+        public Mono<Void> start() {
+            return Mono.fromRunnable(this::work);
+        }
+
+        /**
+         * Records the jitter of this firing, and then performs the work of the workload.
+         */
+        private void work() {
+            long now = System.nanoTime();
+            if (lastFire != 0L) {
+                jitter.record(Math.abs(now - lastFire - periodNanos));
+            }
+            lastFire = now;
+
+            long nanos = workload.work().toNanos();
+            switch (workload.behaviour()) {
+                case CPU -> spin(nanos);
+                case BLOCKING -> LockSupport.parkNanos(nanos);
+                case FAILING -> {
+                    spin(nanos);
+                    throw new IllegalStateException("Simulated failure.");
+                }
+            }
+        }
+
+        @Override
+        public Mono<Void> stop() {
+            return Mono.empty();
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the file dumps of a {@link PrometheusExporter}.
+ *
+ * @author SimplexDevelopment
+ */
+class PrometheusExporterTest {
+    private final PrometheusExporter exporter = new PrometheusExporter(new ServiceManager());
+
+    @Test
+    void startingAFileDumpReplacesTheCurrentOne() throws Exception {
+        Path directory = Files.createTempDirectory("metrics");
+        Path replaced = directory.resolve("replaced.prom");
+        Path current = directory.resolve("current.prom");
+
+        exporter.startFileDump(replaced, Duration.ofMillis(100L));
+        exporter.startFileDump(current, Duration.ofMillis(100L));
+        Thread.sleep(400L);
+        exporter.dispose();
+
+        assertFalse(Files.exists(replaced));
+        assertTrue(Files.exists(current));
+    }
+
+    @Test
+    void rejectsNewExportsOnceDisposed() throws Exception {
+        exporter.dispose();
+
+        Path file = Files.createTempFile("metrics", ".prom");
+        assertThrows(IllegalStateException.class, () -> exporter.startFileDump(file, Duration.ofSeconds(1L)));
+        assertThrows(IllegalStateException.class, () -> exporter.startHttp(0));
+    }
+}
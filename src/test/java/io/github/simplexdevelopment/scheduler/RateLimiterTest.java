@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the bursts, steady rate and denials of a {@link RateLimiter}, and how a pool combines the limiters of a service
+ * and of the pool itself.
+ *
+ * @author SimplexDevelopment
+ */
+class RateLimiterTest {
+    @Test
+    void burstPassesAtOnceThenDenies() {
+        RateLimiter limiter = new RateLimiter(1D, 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, limiter.acquire());
+        }
+        assertEquals(RateLimiter.DENIED, limiter.acquire());
+
+        RateLimiter.ThrottleStatistics statistics = limiter.getStatistics();
+        assertEquals(5L, statistics.permitted());
+        assertEquals(1L, statistics.dropped());
+    }
+
+    @Test
+    void permitsRefillAtTheSteadyRate() throws Exception {
+        RateLimiter limiter = new RateLimiter(20D, 1);
+        assertEquals(0L, limiter.acquire());
+        assertEquals(RateLimiter.DENIED, limiter.acquire());
+
+        Thread.sleep(60L);
+        assertEquals(0L, limiter.acquire());
+        assertEquals(RateLimiter.DENIED, limiter.acquire());
+    }
+
+    @Test
+    void delayedExecutionsWaitForTheirPermit() {
+        RateLimiter limiter = new RateLimiter(10D, 1, RateLimiter.ThrottleMode.DELAY, Duration.ofMillis(150L));
+        long interval = TimeUnit.MILLISECONDS.toNanos(100L);
+
+        assertEquals(0L, limiter.acquire());
+        long wait = limiter.acquire();
+        assertTrue(wait > 0L && wait <= interval, "waited " + wait);
+        // A third execution would have to wait for two intervals, which is longer than the maximum delay.
+        assertEquals(RateLimiter.DENIED, limiter.acquire());
+
+        RateLimiter.ThrottleStatistics statistics = limiter.getStatistics();
+        assertEquals(1L, statistics.delayed());
+        assertEquals(1L, statistics.dropped());
+    }
+
+    @Test
+    void refundedPermitsCanBeTakenAgain() {
+        RateLimiter limiter = new RateLimiter(1D, 1);
+        long wait = limiter.acquire();
+        limiter.refund(wait);
+
+        assertEquals(0L, limiter.acquire());
+        assertEquals(1L, limiter.getStatistics().permitted());
+    }
+
+    @Test
+    void poolDenialsDoNotConsumeTheServicePermit() {
+        ServicePool pool = new ServicePool("limited", new VirtualTickScheduler());
+        CountingService service = new CountingService(pool);
+        RateLimiter serviceLimiter = new RateLimiter(1D, 1);
+        RateLimiter poolLimiter = new RateLimiter(1D, 1);
+        service.setRateLimiter(serviceLimiter);
+        pool.setRateLimiter(poolLimiter);
+
+        // Exhaust the pool, so that the next dispatch is denied by the pool after the service took its permit.
+        assertEquals(0L, poolLimiter.acquire());
+        pool.dispatch(service);
+        assertEquals(0L, service.count);
+
+        pool.setRateLimiter(null);
+        pool.dispatch(service);
+        assertEquals(1L, service.count);
+        assertEquals(1L, serviceLimiter.getStatistics().permitted());
+    }
+
+    /**
+     * A one-shot service which counts its executions.
+     */
+    private static final class CountingService extends ExecutableService {
+        private long count = 0L;
+
+        private CountingService(ServicePool pool) {
+            super(pool, "limited", 0L, 0L, false, false);
+        }
+
+        @Override
+        public Mono<Void> start() {
+            return Mono.fromRunnable(() -> count++);
+        }
+
+        @Override
+        public Mono<Void> stop() {
+            return Mono.empty();
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link ReactorBukkitScheduler} against a {@link FakeBukkitScheduler}, which runs every task on the test thread.
+ *
+ * @author SimplexDevelopment
+ */
+class ReactorBukkitSchedulerTest {
+    private FakeBukkitScheduler bukkit;
+    private ReactorBukkitScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        bukkit = new FakeBukkitScheduler();
+        scheduler = new ReactorBukkitScheduler(new FakePlugin(bukkit));
+    }
+
+    @Test
+    void convertsTimeToTicksRoundingUp() {
+        assertEquals(0L, ReactorBukkitScheduler.toTicks(0L, TimeUnit.MILLISECONDS));
+        assertEquals(0L, ReactorBukkitScheduler.toTicks(-5L, TimeUnit.MILLISECONDS));
+        assertEquals(1L, ReactorBukkitScheduler.toTicks(1L, TimeUnit.NANOSECONDS));
+        assertEquals(1L, ReactorBukkitScheduler.toTicks(50L, TimeUnit.MILLISECONDS));
+        assertEquals(2L, ReactorBukkitScheduler.toTicks(51L, TimeUnit.MILLISECONDS));
+        assertEquals(20L, ReactorBukkitScheduler.toTicks(1L, TimeUnit.SECONDS));
+        assertEquals(7L, ReactorBukkitScheduler.toTicks(7L, null));
+    }
+
+    @Test
+    void runsScheduledTasksOnTheNextTick() {
+        StepVerifier.create(Mono.fromCallable(bukkit::getCurrentTick).subscribeOn(scheduler))
+                .then(bukkit::tick)
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void delaysAreConvertedIntoTicks() {
+        StepVerifier.create(Mono.delay(Duration.ofMillis(120L), scheduler).map(ignored -> bukkit.getCurrentTick()))
+                .then(() -> bukkit.advance(5L))
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void periodicTasksRunEveryPeriod() {
+        StepVerifier.create(Flux.interval(Duration.ofMillis(100L), scheduler).map(ignored -> bukkit.getCurrentTick()).take(3L))
+                .then(() -> bukkit.advance(10L))
+                .expectNext(2L, 4L, 6L)
+                .verifyComplete();
+    }
+
+    @Test
+    void disposingCancelsTheBukkitTask() {
+        AtomicInteger runs = new AtomicInteger();
+        Disposable disposable = scheduler.schedulePeriodically(runs::incrementAndGet, 0L, 1L, null);
+
+        bukkit.advance(3L);
+        disposable.dispose();
+        bukkit.advance(3L);
+
+        assertEquals(3, runs.get());
+        assertTrue(disposable.isDisposed());
+        assertEquals(0, bukkit.getPending());
+    }
+
+    @Test
+    void rejectsPeriodsBelowOneTick() {
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedulePeriodically(() -> {
+        }, 0L, 0L, TimeUnit.MILLISECONDS));
+    }
+}
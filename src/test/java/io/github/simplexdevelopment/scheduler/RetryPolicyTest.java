@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the validation of a {@link RetryPolicy}, and its retries on a {@link VirtualTickScheduler}.
+ *
+ * @author SimplexDevelopment
+ */
+class RetryPolicyTest {
+    private final VirtualTickScheduler ticks = new VirtualTickScheduler();
+
+    @Test
+    void rejectsInvalidPolicies() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(-1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 1.5D));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(1, Duration.ofSeconds(2L), Duration.ofSeconds(1L), 0D));
+    }
+
+    @Test
+    void theMaximumBackoffIsNeverBelowTheMinimum() {
+        assertEquals(Duration.ofMinutes(1L), new RetryPolicy(1, Duration.ofSeconds(1L)).maxBackoff());
+        assertEquals(Duration.ofMinutes(2L), new RetryPolicy(1, Duration.ofMinutes(2L)).maxBackoff());
+    }
+
+    @Test
+    void retriesOnTheSchedulerAfterTheBackoff() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(50L), Duration.ofMillis(50L), 0D);
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<Integer> result = Mono.fromCallable(() -> {
+                    if (attempts.incrementAndGet() < 3) throw new IllegalStateException("Simulated failure.");
+                    return attempts.get();
+                })
+                .retryWhen(policy.toRetry(ticks, th -> true))
+                .toFuture();
+
+        assertEquals(1, attempts.get());
+        ticks.tick();
+        assertEquals(2, attempts.get());
+        ticks.tick();
+        assertEquals(3, (int) result.join());
+    }
+
+    @Test
+    void propagatesTheLastErrorOnceRetriesAreExhausted() {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ofMillis(50L), Duration.ofMillis(50L), 0D);
+        IllegalStateException failure = new IllegalStateException("Simulated failure.");
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<Object> result = Mono.error(failure)
+                .doOnSubscribe(subscription -> attempts.incrementAndGet())
+                .retryWhen(policy.toRetry(ticks, th -> true))
+                .toFuture();
+
+        ticks.advance(5L);
+        assertEquals(3, attempts.get());
+        assertTrue(result.isCompletedExceptionally());
+        assertSame(failure, result.handle((value, th) -> th).join());
+    }
+
+    @Test
+    void doesNotRetryFilteredErrors() {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ofMillis(50L), Duration.ofMillis(50L), 0D);
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<Object> result = Mono.error(new IllegalStateException("Simulated failure."))
+                .doOnSubscribe(subscription -> attempts.incrementAndGet())
+                .retryWhen(policy.toRetry(ticks, th -> false))
+                .toFuture();
+
+        ticks.advance(5L);
+        assertEquals(1, attempts.get());
+        assertTrue(result.isCompletedExceptionally());
+        assertFalse(result.isCancelled());
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.Scannable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the timers shared by periodic services with the same period and phase, on a pool driven by a {@link VirtualTickScheduler}.
+ *
+ * @author SimplexDevelopment
+ */
+class ServicePoolFusionTest {
+    private final VirtualTickScheduler ticks = new VirtualTickScheduler();
+    private final ServicePool pool = new ServicePool("fusion", ticks);
+
+    @Test
+    void servicesInTheSamePhaseShareATimer() {
+        CountingService first = queue(pool, new CountingService(pool, "first", 1L, 4L));
+        CountingService second = queue(pool, new CountingService(pool, "second", 5L, 4L));
+        CountingService other = queue(pool, new CountingService(pool, "other", 2L, 4L));
+
+        assertEquals(2, pool.getTimerCount());
+        assertEquals(2, ticks.getPending());
+
+        ticks.advance(12L);
+        assertEquals(3L, first.count);
+        assertEquals(2L, second.count);
+        assertEquals(3L, other.count);
+    }
+
+    @Test
+    void servicesJoinARunningTimerInTheirPhase() {
+        CountingService first = queue(pool, new CountingService(pool, "first", 1L, 4L));
+        ticks.advance(3L);
+
+        // Due on tick 5, which is the next firing of the timer.
+        CountingService joined = queue(pool, new CountingService(pool, "joined", 2L, 4L));
+        assertEquals(1, pool.getTimerCount());
+
+        ticks.advance(9L);
+        assertEquals(3L, first.count);
+        assertEquals(2L, joined.count);
+    }
+
+    @Test
+    void leavingOnlyStopsThatService() {
+        CountingService first = new CountingService(pool, "first", 1L, 4L);
+        CountingService second = new CountingService(pool, "second", 1L, 4L);
+        Disposable firstHandle = pool.queueService(first).block();
+        Disposable secondHandle = pool.queueService(second).block();
+        ticks.advance(4L);
+
+        secondHandle.dispose();
+        ticks.advance(8L);
+        assertEquals(3L, first.count);
+        assertEquals(1L, second.count);
+        assertEquals(1, ticks.getPending());
+
+        // The last member to leave cancels the shared timer.
+        firstHandle.dispose();
+        assertEquals(0, ticks.getPending());
+        assertEquals(0, pool.getTimerCount());
+
+        CountingService later = queue(pool, new CountingService(pool, "later", 1L, 4L));
+        ticks.advance(4L);
+        assertEquals(1L, later.count);
+    }
+
+    @Test
+    void failingServicesDoNotStopTheOtherMembers() {
+        CountingService error = queue(pool, new CountingService(pool, "error", 1L, 4L, () -> new AssertionError("Simulated error.")));
+        CountingService exception = queue(pool, new CountingService(pool, "exception", 1L, 4L, () -> new IllegalStateException("Simulated failure.")));
+        CountingService healthy = queue(pool, new CountingService(pool, "healthy", 1L, 4L));
+
+        ticks.advance(12L);
+        assertEquals(1L, error.count);
+        assertEquals(1L, exception.count);
+        assertEquals(3L, healthy.count);
+        assertEquals(1, ticks.getPending());
+    }
+
+    @Test
+    void rejectedHandOffsOnlySkipThatService() {
+        FanOutScheduler fanOut = new FanOutScheduler(ticks);
+        ServicePool fanOutPool = new ServicePool("fan-out", fanOut);
+        CountingService rejected = queue(fanOutPool, new CountingService(fanOutPool, "rejected", 1L, 4L));
+        CountingService accepted = queue(fanOutPool, new CountingService(fanOutPool, "accepted", 1L, 4L));
+
+        // The first service is handed off first, so only its first firing is rejected.
+        fanOut.rejections = 1;
+        ticks.advance(12L);
+        assertEquals(2L, rejected.count);
+        assertEquals(3L, accepted.count);
+    }
+
+    private static CountingService queue(ServicePool pool, CountingService service) {
+        pool.queueService(service).block();
+        return service;
+    }
+
+    /**
+     * A periodic service which counts its executions, and optionally fails each of them.
+     */
+    private static final class CountingService extends ExecutableService {
+        private final @Nullable Supplier<? extends Throwable> failure;
+        private long count = 0L;
+
+        private CountingService(ServicePool pool, String name, long delay, long period) {
+            this(pool, name, delay, period, null);
+        }
+
+        private CountingService(ServicePool pool, String name, long delay, long period,
+                                @Nullable Supplier<? extends Throwable> failure) {
+            super(pool, name, delay, period, true, false);
+            this.failure = failure;
+        }
+
+        @Override
+        public Mono<Void> start() {
+            count++;
+            if (failure != null) {
+                Throwable th = failure.get();
+                if (th instanceof Error error) throw error;
+                throw (RuntimeException) th;
+            }
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> stop() {
+            return Mono.empty();
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+
+    /**
+     * A scheduler which reports that it can run several tasks at once, so shared timers hand their services off to it,
+     * and which can be told to reject the next hand-offs.
+     */
+    private static final class FanOutScheduler implements Scheduler, Scannable {
+        private final VirtualTickScheduler delegate;
+        private int rejections = 0;
+
+        private FanOutScheduler(VirtualTickScheduler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public @NotNull Disposable schedule(@NotNull Runnable task) {
+            if (rejections > 0) {
+                rejections--;
+                throw Exceptions.failWithRejected();
+            }
+            return delegate.schedule(task);
+        }
+
+        @Override
+        public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+            return delegate.schedule(task, delay, unit);
+        }
+
+        @Override
+        public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @NotNull TimeUnit unit) {
+            return delegate.schedulePeriodically(task, initialDelay, period, unit);
+        }
+
+        @Override
+        public long now(@NotNull TimeUnit unit) {
+            return delegate.now(unit);
+        }
+
+        @Override
+        public @NotNull Worker createWorker() {
+            return delegate.createWorker();
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public @Nullable Object scanUnsafe(@NotNull Attr key) {
+            return key == Attr.CAPACITY ? 4 : null;
+        }
+    }
+}
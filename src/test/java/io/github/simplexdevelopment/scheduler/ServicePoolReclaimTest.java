@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the reclaiming of idle pools, and their revival when they are used again.
+ *
+ * @author SimplexDevelopment
+ */
+class ServicePoolReclaimTest {
+    private final ServiceManager manager = new ServiceManager();
+    private final ServicePool pool = manager.adaptiveServicePool("reclaim", 1, 2).block();
+
+    @AfterEach
+    void tearDown() {
+        pool.recycle().block();
+    }
+
+    @Test
+    void reclaimReleasesTheSchedulerAndDeregistersThePool() {
+        Scheduler scheduler = pool.getScheduler();
+
+        assertTrue(pool.reclaim());
+        assertTrue(scheduler.isDisposed());
+        assertEquals(0L, registeredPools());
+        assertFalse(pool.reclaim());
+    }
+
+    @Test
+    void getSchedulerRevivesAReclaimedPool() {
+        Scheduler scheduler = pool.getScheduler();
+        pool.reclaim();
+
+        Scheduler revived = pool.getScheduler();
+
+        assertNotSame(scheduler, revived);
+        assertFalse(revived.isDisposed());
+        assertSame(pool, manager.getServicePool(pool.getNumericalId()));
+    }
+
+    @Test
+    void queueingRevivesAReclaimedPool() {
+        pool.reclaim();
+
+        Disposable timer = pool.queueService(new IdleService(pool)).block();
+
+        assertEquals(1L, registeredPools());
+        assertFalse(pool.reclaim());
+        timer.dispose();
+        assertTrue(pool.reclaim());
+    }
+
+    @Test
+    void heldPoolsAreNotReclaimed() {
+        pool.retain();
+        assertFalse(pool.reclaim());
+
+        pool.release();
+        assertTrue(pool.reclaim());
+    }
+
+    @Test
+    void heldWorkNeverSeesADisposedScheduler() throws InterruptedException {
+        ServicePool owning = new ServicePool("owning", () -> Schedulers.newSingle("owning"));
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger reclaimed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread reaper = new Thread(() -> {
+            while (running.get()) {
+                if (owning.reclaim()) reclaimed.incrementAndGet();
+            }
+            done.countDown();
+        });
+        reaper.start();
+
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                boolean disposed = owning.hold(Mono.fromCallable(() -> owning.getScheduler().isDisposed())).block();
+                assertFalse(disposed, "A held pool handed out a disposed scheduler.");
+            }
+        } finally {
+            running.set(false);
+            done.await();
+            owning.recycle().block();
+        }
+        assertTrue(reclaimed.get() > 0, "The pool should have been reclaimed while it was not held.");
+    }
+
+    /**
+     * @return The number of pools registered with the service manager.
+     */
+    private long registeredPools() {
+        return manager.getServicePools().count().blockOptional().orElse(0L);
+    }
+
+    /**
+     * A periodic service which does nothing. Its first firing is a minute away, so it never keeps the pool busy during a test.
+     */
+    private static final class IdleService extends ExecutableService {
+        private IdleService(ServicePool pool) {
+            super(pool, "idle", 1_200L, 20L, true, false);
+        }
+
+        @Override
+        public Mono<Void> start() {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> stop() {
+            return Mono.empty();
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulates hours of scheduling for ten thousand services, and checks that every service fired exactly as often as its
+ * delay and period allow. The Bukkit variants run on {@code new ServicePool(name, plugin)} over a {@link FakeBukkitScheduler},
+ * so they exercise the {@link ReactorBukkitScheduler} used in production; the other variant runs on Reactor's
+ * {@link VirtualTimeScheduler}.
+ *
+ * @author SimplexDevelopment
+ */
+class ServicePoolSimulationTest {
+    /**
+     * The number of services in each simulation.
+     */
+    private static final int SERVICES = 10_000;
+    /**
+     * The periods (in ticks) of the services: one, five and ten minutes.
+     */
+    private static final long[] PERIODS = {1_200L, 6_000L, 12_000L};
+    /**
+     * How long each simulation runs for, in ticks: three hours.
+     */
+    private static final long TICKS = 3L * 60L * 60L * 20L;
+
+    @Test
+    void bukkitPoolFiresEveryService() {
+        FakeBukkitScheduler bukkit = new FakeBukkitScheduler();
+        ServicePool pool = new ServicePool("simulated", new FakePlugin(bukkit));
+        pool.setFusionEnabled(false);
+
+        List<CountingService> services = queue(pool, true);
+        bukkit.advance(TICKS);
+
+        // Bukkit runs a task with no delay on the next tick, so the first firing is never earlier than tick 1.
+        for (CountingService service : services) {
+            long first = Math.max(1L, service.getDelay());
+            assertEquals((TICKS - first) / service.getPeriod() + 1L, service.count, service.getName());
+        }
+        assertEquals(SERVICES, bukkit.getPending());
+    }
+
+    @Test
+    void fusedBukkitPoolFiresEveryService() {
+        FakeBukkitScheduler bukkit = new FakeBukkitScheduler();
+        ServicePool pool = new ServicePool("simulated", new FakePlugin(bukkit));
+
+        // The fused timers measure phase with the wall clock, which does not move with the fake ticks. Every service
+        // is queued on the same tick, so they all share a phase, although queueing may span a few wall-clock ticks.
+        List<CountingService> services = queue(pool, false);
+        bukkit.advance(TICKS);
+
+        for (CountingService service : services) {
+            assertEquals((TICKS - 1L) / service.getPeriod() + 1L, service.count, service.getName());
+        }
+        assertTrue(bukkit.getPending() < SERVICES / 100, "The services should share their timers.");
+    }
+
+    @Test
+    void virtualTimePoolFiresEveryService() {
+        VirtualTimeScheduler virtualTime = VirtualTimeScheduler.create();
+        ServicePool pool = new ServicePool("simulated", virtualTime);
+
+        List<CountingService> services = queue(pool, true);
+        virtualTime.advanceTimeBy(Duration.ofMillis(TICKS * 50L));
+
+        // Reactor runs a task with no delay immediately, and runs every task which is due at the end of the advance.
+        for (CountingService service : services) {
+            assertEquals((TICKS - service.getDelay()) / service.getPeriod() + 1L, service.count, service.getName());
+        }
+        long executions = services.stream().mapToLong(service -> pool.getMetrics(service).getExecutions()).sum();
+        assertEquals(services.stream().mapToLong(service -> service.count).sum(), executions);
+    }
+
+    /**
+     * Creates and queues the services of a simulation.
+     *
+     * @param pool      The pool to queue the services on.
+     * @param staggered Whether the first firing of each service should be spread over its first minute.
+     * @return The queued services.
+     */
+    private static List<CountingService> queue(ServicePool pool, boolean staggered) {
+        List<CountingService> services = new ArrayList<>(SERVICES);
+        for (int i = 0; i < SERVICES; i++) {
+            long period = PERIODS[i % PERIODS.length];
+            CountingService service = new CountingService(pool, i, staggered ? i % 1_200L : 0L, period);
+            pool.queueService(service).block();
+            services.add(service);
+        }
+        return services;
+    }
+
+    /**
+     * A periodic service which counts its executions.
+     */
+    private static final class CountingService extends ExecutableService {
+        private long count = 0L;
+
+        private CountingService(ServicePool pool, int index, long delay, long period) {
+            super(pool, "simulated-" + index, delay, period, true, false);
+        }
+
+        @Override
+        public Mono<Void> start() {
+            return Mono.fromRunnable(() -> count++);
+        }
+
+        @Override
+        public Mono<Void> stop() {
+            return Mono.empty();
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the per-tick budget, completion, cancellation and failure of a {@link SlicedIteration}
+ * driven by a {@link VirtualTickScheduler}.
+ *
+ * @author SimplexDevelopment
+ */
+class SlicedIterationTest {
+    private final VirtualTickScheduler ticks = new VirtualTickScheduler();
+
+    @Test
+    void processesAtMostTheItemBudgetEachTick() {
+        List<Integer> processed = new ArrayList<>();
+        SlicedIteration<Integer> iteration = start(range(10), new SlicedIteration.Budget(Duration.ofMinutes(1L), 3), processed::add);
+        CompletableFuture<SlicedIteration.Progress> completion = iteration.completion().toFuture();
+
+        ticks.tick();
+        assertEquals(List.of(0, 1, 2), processed);
+        ticks.advance(2L);
+        assertEquals(9, processed.size());
+        assertFalse(completion.isDone());
+
+        ticks.tick();
+        SlicedIteration.Progress progress = completion.join();
+        assertEquals(10L, progress.processed());
+        assertEquals(4L, progress.ticks());
+        assertTrue(progress.completed());
+        assertEquals(0, ticks.getPending());
+    }
+
+    @Test
+    void processesAtLeastOneItemPerTickWhenTheTimeRunsOut() {
+        AtomicInteger processed = new AtomicInteger();
+        SlicedIteration<Integer> iteration = start(range(3), SlicedIteration.Budget.ofTime(Duration.ofNanos(1L)), element -> {
+            processed.incrementAndGet();
+            long start = System.nanoTime();
+            while (System.nanoTime() - start < 1_000L) {
+                Thread.onSpinWait();
+            }
+        });
+
+        ticks.tick();
+        assertEquals(1, processed.get());
+        ticks.advance(2L);
+        assertEquals(3, processed.get());
+        // The end of the source is only found by the slice after the last element.
+        assertFalse(iteration.getProgress().completed());
+        ticks.tick();
+        assertTrue(iteration.getProgress().completed());
+    }
+
+    @Test
+    void cancellingStopsTheIteration() {
+        AtomicInteger processed = new AtomicInteger();
+        SlicedIteration<Integer> iteration = start(range(10), SlicedIteration.Budget.ofItems(2), element -> processed.incrementAndGet());
+        CompletableFuture<SlicedIteration.Progress> completion = iteration.completion().toFuture();
+
+        ticks.tick();
+        iteration.cancel();
+        ticks.advance(5L);
+
+        SlicedIteration.Progress progress = completion.join();
+        assertTrue(progress.cancelled());
+        assertFalse(progress.completed());
+        assertEquals(2L, progress.processed());
+        assertEquals(2, processed.get());
+        assertEquals(0, ticks.getPending());
+    }
+
+    @Test
+    void errorsFailTheIterationAndStopTheTimer() {
+        AssertionError error = new AssertionError("Simulated error.");
+        AtomicInteger attempts = new AtomicInteger();
+        SlicedIteration<Integer> iteration = start(range(10), SlicedIteration.Budget.ofItems(5), element -> {
+            if (attempts.incrementAndGet() == 2) throw error;
+        });
+        CompletableFuture<SlicedIteration.Progress> completion = iteration.completion().toFuture();
+
+        ticks.advance(5L);
+
+        assertTrue(completion.isCompletedExceptionally());
+        assertSame(error, completion.handle((progress, th) -> th).join());
+        assertEquals(2, attempts.get());
+        assertEquals(0, ticks.getPending());
+    }
+
+    @Test
+    void fatalErrorsAreRethrownAfterStoppingTheTimer() {
+        AtomicInteger attempts = new AtomicInteger();
+        SlicedIteration<Integer> iteration = start(range(10), SlicedIteration.Budget.ofItems(5), element -> {
+            attempts.incrementAndGet();
+            throw new LinkageError("Simulated fatal error.");
+        });
+        CompletableFuture<SlicedIteration.Progress> completion = iteration.completion().toFuture();
+
+        assertThrows(LinkageError.class, ticks::tick);
+        ticks.advance(5L);
+
+        assertTrue(completion.isCompletedExceptionally());
+        assertEquals(1, attempts.get());
+        assertEquals(0, ticks.getPending());
+    }
+
+    private <E> SlicedIteration<E> start(List<E> elements, SlicedIteration.Budget budget, Consumer<? super E> action) {
+        return new SlicedIteration<>(elements.spliterator(), budget, action).start(ticks);
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> elements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            elements.add(i);
+        }
+        return elements;
+    }
+}
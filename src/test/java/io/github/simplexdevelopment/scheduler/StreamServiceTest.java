@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the batching of a {@link StreamService} on a pool driven by a {@link VirtualTickScheduler}.
+ *
+ * @author SimplexDevelopment
+ */
+class StreamServiceTest {
+    private final VirtualTickScheduler ticks = new VirtualTickScheduler();
+    private final ServicePool pool = new ServicePool("stream", ticks);
+    private final Sinks.Many<Integer> source = Sinks.many().multicast().directBestEffort();
+
+    @Test
+    void keepsDeliveringAfterAcceptThrows() {
+        AtomicInteger calls = new AtomicInteger();
+        List<Integer> received = new ArrayList<>();
+        StreamService<Integer> service = new StreamService<>(pool, "stream", source.asFlux(),
+                16, StreamService.OverflowStrategy.DROP_LATEST, 4, Duration.ofMillis(100L)) {
+            @Override
+            protected Mono<Void> accept(List<Integer> batch) {
+                if (calls.getAndIncrement() == 0) {
+                    throw new IllegalStateException("Simulated failure.");
+                }
+                received.addAll(batch);
+                return Mono.empty();
+            }
+
+            @Override
+            public JavaPlugin getPlugin() {
+                return null;
+            }
+        };
+        service.start().block();
+
+        for (int i = 0; i < 8; i++) {
+            source.tryEmitNext(i);
+        }
+        ticks.advance(5L);
+
+        assertEquals(List.of(4, 5, 6, 7), received);
+        assertEquals(2L, service.getStatistics().batches());
+        assertEquals(2L, pool.getMetrics(service).getExecutions());
+        assertEquals(1L, pool.getMetrics(service).getFailures());
+    }
+
+    @Test
+    void flushesIncompleteBatchesAfterTheTimeout() {
+        List<List<Integer>> batches = new ArrayList<>();
+        StreamService<Integer> service = new StreamService<>(pool, "stream", source.asFlux(),
+                16, StreamService.OverflowStrategy.DROP_LATEST, 4, Duration.ofMillis(100L)) {
+            @Override
+            protected Mono<Void> accept(List<Integer> batch) {
+                batches.add(List.copyOf(batch));
+                return Mono.empty();
+            }
+
+            @Override
+            public JavaPlugin getPlugin() {
+                return null;
+            }
+        };
+        service.start().block();
+
+        source.tryEmitNext(1);
+        source.tryEmitNext(2);
+        ticks.advance(1L);
+        assertEquals(0, batches.size());
+
+        ticks.advance(2L);
+        assertEquals(List.of(List.of(1, 2)), batches);
+    }
+}
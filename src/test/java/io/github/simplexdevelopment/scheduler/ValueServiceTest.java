@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the single-flight loading, expiry and eviction of a {@link ValueService}. Computations run on a pool driven by a
+ * {@link VirtualTickScheduler}, so they only finish once the test advances a tick.
+ *
+ * @author SimplexDevelopment
+ */
+class ValueServiceTest {
+    private final VirtualTickScheduler ticks = new VirtualTickScheduler();
+    private final ServicePool pool = new ServicePool("values", ticks);
+
+    @Test
+    void concurrentReadsOfAStaleKeyComputeOnce() throws Exception {
+        CountingValueService service = new CountingValueService(pool, Duration.ofMillis(20L), 16);
+        assertEquals(1, read(service, "key"));
+        Thread.sleep(40L);
+
+        int readers = 8;
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            results.add(result);
+            Thread thread = new Thread(() -> service.get("key").subscribe(result::complete, result::completeExceptionally));
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ticks.tick();
+
+        for (CompletableFuture<Integer> result : results) {
+            assertEquals(2, (int) result.join());
+        }
+        assertEquals(2L, service.getStatistics().loads());
+    }
+
+    @Test
+    void valuesExpireAfterTheTimeToLive() throws Exception {
+        CountingValueService service = new CountingValueService(pool, Duration.ofMillis(200L), 16);
+        assertEquals(1, read(service, "key"));
+        assertEquals(1, (int) service.get("key").block());
+        assertEquals(1L, service.getStatistics().hits());
+
+        Thread.sleep(300L);
+        assertEquals(2, read(service, "key"));
+        assertEquals(2L, service.getStatistics().loads());
+    }
+
+    @Test
+    void theLeastRecentlyReadKeyIsEvicted() {
+        CountingValueService service = new CountingValueService(pool, Duration.ofMinutes(1L), 2);
+        read(service, "first");
+        read(service, "second");
+        service.get("first").block();
+        read(service, "third");
+
+        assertNull(service.getIfPresent("second"));
+        assertEquals(1, (int) service.getIfPresent("first"));
+        assertEquals(3, (int) service.getIfPresent("third"));
+        assertEquals(1L, service.getStatistics().evictions());
+        assertEquals(2, service.getStatistics().size());
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        CountingValueService service = new CountingValueService(pool, Duration.ofMinutes(1L), 16);
+        service.failNext = true;
+
+        CompletableFuture<Integer> failed = service.get("key").toFuture();
+        ticks.tick();
+        assertTrue(failed.isCompletedExceptionally());
+        assertNull(service.getIfPresent("key"));
+        assertEquals(1L, service.getStatistics().failures());
+
+        assertEquals(2, read(service, "key"));
+        assertEquals(2L, service.getStatistics().loads());
+    }
+
+    @Test
+    void computationsRunningWhenStoppedAreNotCached() {
+        CountingValueService service = new CountingValueService(pool, Duration.ofMinutes(1L), 16);
+        CompletableFuture<Integer> result = service.get("key").toFuture();
+        service.stop().block();
+        ticks.tick();
+
+        assertEquals(1, (int) result.join());
+        assertNull(service.getIfPresent("key"));
+        assertEquals(2, read(service, "key"));
+    }
+
+    /**
+     * Reads a key, advancing a tick so that a computation can finish.
+     *
+     * @param service The service to read from.
+     * @param key     The key to read.
+     * @return The value of the key.
+     */
+    private int read(ValueService<String, Integer> service, String key) {
+        CompletableFuture<Integer> result = service.get(key).toFuture();
+        ticks.tick();
+        try {
+            return result.join();
+        } catch (RuntimeException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    /**
+     * A value service whose values count the computations it has run.
+     */
+    private static final class CountingValueService extends ValueService<String, Integer> {
+        private final AtomicInteger computations = new AtomicInteger();
+        private volatile boolean failNext = false;
+
+        private CountingValueService(ServicePool pool, Duration timeToLive, int maximumSize) {
+            super(pool, "values", timeToLive, maximumSize);
+        }
+
+        @Override
+        protected @NotNull Mono<Integer> compute(@NotNull String key) {
+            int computation = computations.incrementAndGet();
+            if (failNext) {
+                failNext = false;
+                return Mono.error(new IllegalStateException("Simulated failure."));
+            }
+            return Mono.just(computation);
+        }
+
+        @Override
+        public JavaPlugin getPlugin() {
+            return null;
+        }
+    }
+}
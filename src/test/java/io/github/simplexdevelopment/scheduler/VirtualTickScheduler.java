@@ -0,0 +1,380 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2022 SimplexDevelopment
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.simplexdevelopment.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Scheduler} driven by virtual server ticks instead of the Bukkit scheduler or the wall clock.
+ * Nothing runs until {@link #tick()} or {@link #advance(long)} is called, and every task then runs on the calling thread,
+ * in order of its due tick and then in the order it was scheduled. This makes a run fully deterministic,
+ * and lets hours of scheduling be simulated in as long as it takes to execute the tasks themselves.
+ * <p>
+ * The timing semantics match the {@link ReactorBukkitScheduler}: delays are converted into ticks (rounded up),
+ * and a task scheduled without a delay runs on the next tick, not the current one.
+ * {@link #now(TimeUnit)} reports virtual time, so Reactor operators which use this scheduler
+ * (such as {@code Mono.delay} or the backoff of a {@link RetryPolicy}) also advance with the virtual ticks.
+ * <p>
+ * Use {@link ServicePool#ServicePool(String, Scheduler)} to create a pool which runs on this scheduler.
+ *
+ * @author SimplexDevelopment
+ * @see ReactorBukkitScheduler
+ */
+public final class VirtualTickScheduler implements Scheduler {
+    /**
+     * The tasks which have not run yet, ordered by due tick and then by sequence number.
+     */
+    private final PriorityQueue<TickTask> queue = new PriorityQueue<>();
+    /**
+     * The current virtual tick.
+     */
+    private long currentTick = 0L;
+    /**
+     * The sequence number of the next scheduled task, used to keep the order of tasks due on the same tick.
+     */
+    private long sequence = 0L;
+    /**
+     * The total number of tasks which have run.
+     */
+    private long executed = 0L;
+    /**
+     * Whether this scheduler has been disposed.
+     */
+    private volatile boolean disposed = false;
+
+    /**
+     * Runs the given task on the next tick.
+     *
+     * @param task The task to run.
+     * @return A disposable that can be used to cancel the task.
+     */
+    @Override
+    public @NotNull Disposable schedule(@NotNull Runnable task) {
+        return enqueue(task, 1L, 0L, null);
+    }
+
+    /**
+     * Runs the given task after a delay.
+     *
+     * @param task  The task to run.
+     * @param delay The amount of time to wait before running the task.
+     * @param unit  The unit of the delay, which is converted into ticks (rounded up).
+     *              If this is null, the delay is treated as a number of ticks.
+     * @return A disposable that can be used to cancel the task.
+     */
+    @Override
+    public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @Nullable TimeUnit unit) {
+        return enqueue(task, Math.max(1L, ReactorBukkitScheduler.toTicks(delay, unit)), 0L, null);
+    }
+
+    /**
+     * Runs the given task repeatedly after an initial delay.
+     *
+     * @param task         The task to run.
+     * @param initialDelay The amount of time to wait before running the task.
+     * @param period       The amount of time to wait between each execution of the task.
+     * @param unit         The unit of the delay and period, which are converted into ticks (rounded up).
+     *                     If this is null, the delay and period are treated as a number of ticks.
+     * @return A disposable that can be used to cancel the task.
+     */
+    @Override
+    public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @Nullable TimeUnit unit) {
+        if (period <= 0L) {
+            throw new IllegalArgumentException("Period must be greater than 0L");
+        }
+
+        return enqueue(task,
+                Math.max(1L, ReactorBukkitScheduler.toTicks(initialDelay, unit)),
+                Math.max(1L, ReactorBukkitScheduler.toTicks(period, unit)),
+                null);
+    }
+
+    /**
+     * Adds a task to the queue.
+     *
+     * @param task   The task to run.
+     * @param delay  How many ticks from now the task should first run. This is always at least 1.
+     * @param period How many ticks to wait between executions, or 0 if the task only runs once.
+     * @param owner  The tasks of the worker which scheduled the task, or null if it was scheduled directly.
+     * @return The queued task.
+     */
+    private synchronized TickTask enqueue(Runnable task, long delay, long period, @Nullable Disposable.Composite owner) {
+        if (disposed) {
+            throw Exceptions.failWithRejected();
+        }
+
+        TickTask tickTask = new TickTask(task, period, owner);
+        if (owner != null && !owner.add(tickTask)) {
+            tickTask.dispose();
+            return tickTask;
+        }
+        tickTask.dueTick = currentTick + delay;
+        tickTask.sequence = sequence++;
+        queue.add(tickTask);
+        return tickTask;
+    }
+
+    /**
+     * Advances by a single tick, running every task which is due on it.
+     * Tasks scheduled while the tick is running, without a delay, run on the following tick.
+     *
+     * @return The number of tasks which ran during the tick.
+     */
+    public int tick() {
+        long tick;
+        synchronized (this) {
+            tick = ++currentTick;
+        }
+
+        int ran = 0;
+        TickTask task;
+        while ((task = poll(tick)) != null) {
+            try {
+                task.task.run();
+            } catch (RuntimeException ex) {
+                Operators.onErrorDropped(ex, Context.empty());
+            } finally {
+                ran++;
+                requeue(task);
+            }
+        }
+
+        synchronized (this) {
+            executed += ran;
+        }
+        return ran;
+    }
+
+    /**
+     * Queues a periodic task for its next run, or releases a task which has finished.
+     *
+     * @param task The task which has run.
+     */
+    private void requeue(TickTask task) {
+        if (task.period > 0L && !task.disposed) {
+            synchronized (this) {
+                task.dueTick += task.period;
+                task.sequence = sequence++;
+                queue.add(task);
+            }
+        } else if (task.owner != null) {
+            task.owner.remove(task);
+        }
+    }
+
+    /**
+     * Advances by the given number of ticks, running every task which becomes due along the way.
+     *
+     * @param ticks The number of ticks to advance by.
+     * @return The number of tasks which ran.
+     */
+    public long advance(long ticks) {
+        long ran = 0L;
+        for (long i = 0L; i < ticks; i++) {
+            ran += tick();
+        }
+        return ran;
+    }
+
+    /**
+     * Removes the next task due on or before the given tick, skipping any which have been disposed.
+     *
+     * @param tick The tick which is running.
+     * @return The next task to run, or null if there are none left for this tick.
+     */
+    private synchronized @Nullable TickTask poll(long tick) {
+        TickTask next;
+        while ((next = queue.peek()) != null && next.dueTick <= tick) {
+            queue.poll();
+            if (!next.disposed) return next;
+        }
+        return null;
+    }
+
+    /**
+     * @return The current virtual tick.
+     */
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return The total number of tasks which have run on this scheduler.
+     */
+    public synchronized long getExecuted() {
+        return executed;
+    }
+
+    /**
+     * @return The number of tasks waiting to run, including periodic tasks.
+     */
+    public synchronized int getPending() {
+        queue.removeIf(task -> task.disposed);
+        return queue.size();
+    }
+
+    /**
+     * @param unit The unit to return the time in.
+     * @return The virtual time which has passed, in the given unit. Each tick is 50 milliseconds.
+     */
+    @Override
+    public long now(@NotNull TimeUnit unit) {
+        return unit.convert(getCurrentTick() * 50L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return A new worker, whose tasks can all be cancelled by disposing it.
+     */
+    @Override
+    public @NotNull Worker createWorker() {
+        return new TickWorker();
+    }
+
+    /**
+     * Cancels every pending task. No more tasks can be scheduled once this scheduler has been disposed.
+     */
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            disposed = true;
+            queue.forEach(TickTask::dispose);
+            queue.clear();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    @Override
+    public String toString() {
+        return "virtual-tick";
+    }
+
+    /**
+     * A task waiting to run on a {@link VirtualTickScheduler}.
+     */
+    private static final class TickTask implements Disposable, Comparable<TickTask> {
+        /**
+         * The task to run.
+         */
+        private final Runnable task;
+        /**
+         * How many ticks to wait between executions, or 0 if the task only runs once.
+         */
+        private final long period;
+        /**
+         * The tasks of the worker which scheduled this task, or null if it was scheduled directly.
+         */
+        private final Disposable.Composite owner;
+        /**
+         * The tick the task is due on.
+         */
+        private long dueTick;
+        /**
+         * The order in which the task was queued.
+         */
+        private long sequence;
+        /**
+         * Whether the task has been cancelled.
+         */
+        private volatile boolean disposed = false;
+
+        private TickTask(Runnable task, long period, @Nullable Disposable.Composite owner) {
+            this.task = task;
+            this.period = period;
+            this.owner = owner;
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public int compareTo(@NotNull TickTask other) {
+            int byTick = Long.compare(dueTick, other.dueTick);
+            return byTick != 0 ? byTick : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * A worker which tracks its tasks, so that they can be cancelled together.
+     */
+    private final class TickWorker implements Worker {
+        /**
+         * The tasks scheduled through this worker.
+         */
+        private final Disposable.Composite tasks = Disposables.composite();
+
+        @Override
+        public @NotNull Disposable schedule(@NotNull Runnable task) {
+            return enqueue(task, 1L, 0L, tasks);
+        }
+
+        @Override
+        public @NotNull Disposable schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+            return enqueue(task, Math.max(1L, ReactorBukkitScheduler.toTicks(delay, unit)), 0L, tasks);
+        }
+
+        @Override
+        public @NotNull Disposable schedulePeriodically(@NotNull Runnable task, long initialDelay, long period, @NotNull TimeUnit unit) {
+            if (period <= 0L) {
+                throw new IllegalArgumentException("Period must be greater than 0L");
+            }
+
+            return enqueue(task,
+                    Math.max(1L, ReactorBukkitScheduler.toTicks(initialDelay, unit)),
+                    Math.max(1L, ReactorBukkitScheduler.toTicks(period, unit)),
+                    tasks);
+        }
+
+        @Override
+        public void dispose() {
+            tasks.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return tasks.isDisposed();
+        }
+    }
+}